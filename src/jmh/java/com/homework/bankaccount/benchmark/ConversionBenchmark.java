@@ -0,0 +1,53 @@
+package com.homework.bankaccount.benchmark;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.rates.ExchangeRateSnapshot;
+import com.homework.bankaccount.rates.StubExchangeRateProvider;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Currency conversion and amount arithmetic. The {@code bigDecimal*} benchmarks reproduce the
+ * {@code toEur}/{@code fromEur} and {@code setScale} code the service used before {@link Money}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConversionBenchmark {
+
+  private Map<Currency, BigDecimal> ratesToEur = new StubExchangeRateProvider().loadRatesToEur();
+  private ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.of(1L, ratesToEur);
+  private BigDecimal amount = new BigDecimal("1234.5678");
+  private Money money = Money.of(amount);
+
+  @Benchmark
+  public BigDecimal bigDecimalToEurFromEur() {
+    BigDecimal eur = amount.multiply(ratesToEur.get(Currency.USD));
+    return eur.divide(ratesToEur.get(Currency.GBP), 8, RoundingMode.HALF_UP)
+        .setScale(4, RoundingMode.HALF_UP);
+  }
+
+  @Benchmark
+  public Money snapshotConvert() {
+    return snapshot.convert(money, Currency.USD, Currency.GBP);
+  }
+
+  @Benchmark
+  public BigDecimal bigDecimalAdd() {
+    return amount.add(amount).setScale(4, RoundingMode.HALF_UP);
+  }
+
+  @Benchmark
+  public Money moneyPlus() {
+    return money.plus(money);
+  }
+}
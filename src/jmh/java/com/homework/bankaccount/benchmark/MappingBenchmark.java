@@ -0,0 +1,76 @@
+package com.homework.bankaccount.benchmark;
+
+import com.homework.bankaccount.entities.BalanceEntity;
+import com.homework.bankaccount.entities.BankAccountEntity;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.mapper.BalanceMapper;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.repository.BalanceView;
+import com.homework.bankaccount.response.BalanceResponse;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Balance mapping and the lookup of a balance by currency over {@code getBalances()}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappingBenchmark {
+
+  @Param({"EUR", "GBP"})
+  private Currency currency;
+
+  private BalanceMapper balanceMapper = new BalanceMapper();
+  private BankAccountEntity account;
+  private BalanceEntity balance;
+  private BalanceView balanceView;
+
+  @Setup
+  public void setUp() {
+    account = new BankAccountEntity();
+    account.setId(1L);
+    for (Currency each : Currency.values()) {
+      BalanceEntity entity = new BalanceEntity();
+      entity.setBankAccount(account);
+      entity.setCurrency(each);
+      entity.setAmount(Money.parse("1234.5678"));
+      account.getBalances().add(entity);
+    }
+    balance = account.getBalances().getFirst();
+    balanceView = new BalanceView(balance.getAmount(), balance.getCurrency(), 1L);
+  }
+
+  @Benchmark
+  public BalanceResponse mapEntity() {
+    return balanceMapper.toResponse(balance);
+  }
+
+  @Benchmark
+  public BalanceResponse mapView() {
+    return balanceMapper.toResponse(balanceView);
+  }
+
+  @Benchmark
+  public Optional<BalanceEntity> lookupByStreamFilter() {
+    return account.getBalances().stream().filter(b -> b.getCurrency() == currency).findFirst();
+  }
+
+  /** What {@code exchangeCurrency} does: collect the balances into a map, then look up. */
+  @Benchmark
+  public BalanceEntity lookupByCollectedMap() {
+    Map<Currency, BalanceEntity> balances =
+        account.getBalances().stream()
+            .collect(Collectors.toMap(BalanceEntity::getCurrency, Function.identity()));
+    return balances.get(currency);
+  }
+}
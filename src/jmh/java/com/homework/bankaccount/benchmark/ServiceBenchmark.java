@@ -0,0 +1,108 @@
+package com.homework.bankaccount.benchmark;
+
+import com.homework.bankaccount.BankaccountApplication;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
+import com.homework.bankaccount.httpclient.response.ExternalSystemResponse;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.request.MoneyRequest;
+import com.homework.bankaccount.response.AccountBalances;
+import com.homework.bankaccount.service.BalanceCache;
+import com.homework.bankaccount.service.BankAccountService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * End-to-end service calls against an embedded Postgres. The external authorization call is
+ * replaced by a stub so that the numbers reflect the service and the database only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServiceBenchmark {
+
+  private static final MoneyRequest AMOUNT =
+      new MoneyRequest(new BigDecimal("1.00"), Currency.EUR);
+
+  private EmbeddedPostgres postgres;
+  private ConfigurableApplicationContext context;
+  private BankAccountService bankAccountService;
+  private BalanceCache balanceCache;
+  private Long accountId;
+
+  @Setup
+  public void setUp() throws IOException {
+    postgres = EmbeddedPostgres.start();
+    context =
+        new SpringApplicationBuilder(BankaccountApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "spring.datasource.username=postgres",
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN")
+            .initializers(
+                ctx ->
+                    ((GenericApplicationContext) ctx)
+                        .registerBean(
+                            "stubExternalSystemRestClient",
+                            ExternalSystemRestClient.class,
+                            () -> () -> new ExternalSystemResponse(200, "OK"),
+                            definition -> definition.setPrimary(true)))
+            .run();
+    bankAccountService = context.getBean(BankAccountService.class);
+    balanceCache = context.getBean(BalanceCache.class);
+    accountId = bankAccountService.createAccount("benchmark").getId();
+    bankAccountService.addMoney(
+        accountId, new MoneyRequest(new BigDecimal("1000000000"), Currency.EUR));
+    bankAccountService.addMoney(
+        accountId, new MoneyRequest(new BigDecimal("1000000000"), Currency.USD));
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    context.close();
+    postgres.close();
+  }
+
+  @Benchmark
+  public Money deposit() {
+    return bankAccountService.addMoney(accountId, AMOUNT);
+  }
+
+  @Benchmark
+  public Money debit() {
+    return bankAccountService.debitMoney(accountId, AMOUNT);
+  }
+
+  @Benchmark
+  public AccountBalances getBalanceCached() {
+    return bankAccountService.getBalance(accountId);
+  }
+
+  @Benchmark
+  public AccountBalances getBalanceUncached() {
+    balanceCache.evictAfterCommit(accountId);
+    return bankAccountService.getBalance(accountId);
+  }
+
+  @Benchmark
+  public void exchange() {
+    bankAccountService.exchangeCurrency(
+        accountId, Currency.EUR, Currency.USD, Money.parse("1.00"));
+  }
+}
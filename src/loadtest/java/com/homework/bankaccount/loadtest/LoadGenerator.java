@@ -0,0 +1,145 @@
+package com.homework.bankaccount.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Open-model load generator: requests are started at a fixed arrival rate whether or not earlier
+ * ones have completed, and latency is measured from the scheduled start so that a stalled server
+ * is not hidden by a stalled client (coordinated omission).
+ */
+class LoadGenerator {
+
+  private static final String[] CURRENCIES = {"EUR", "USD", "SEK", "GBP"};
+  private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+  private final LoadTestSettings settings;
+  private final String baseUrl;
+  private final List<Long> accountIds;
+  private final Operation[] weightedOperations;
+  private final HttpClient httpClient;
+  private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+  private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+  LoadGenerator(LoadTestSettings settings, String baseUrl, List<Long> accountIds) {
+    this.settings = settings;
+    this.baseUrl = baseUrl;
+    this.accountIds = accountIds;
+    this.weightedOperations =
+        settings.mix().entrySet().stream()
+            .flatMap(e -> Collections.nCopies(e.getValue(), e.getKey()).stream())
+            .toArray(Operation[]::new);
+    this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    for (Operation operation : Operation.values()) {
+      latencies.put(operation, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+      errors.put(operation, new LongAdder());
+    }
+  }
+
+  /** Runs the warmup and the measured phase and returns the measured results. */
+  LoadTestReport run() throws InterruptedException {
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      drive(executor, settings.warmup(), false);
+      long started = System.nanoTime();
+      drive(executor, settings.duration(), true);
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+      return new LoadTestReport(
+          settings, Duration.ofNanos(System.nanoTime() - started), latencies, errors);
+    }
+  }
+
+  private void drive(ExecutorService executor, Duration phase, boolean measured) {
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+    long start = System.nanoTime();
+    long end = start + phase.toNanos();
+    for (long scheduled = start; scheduled < end; scheduled += intervalNanos) {
+      long wait = scheduled - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      long intendedStart = scheduled;
+      Operation operation = nextOperation();
+      executor.execute(() -> execute(operation, intendedStart, measured));
+    }
+  }
+
+  private void execute(Operation operation, long intendedStart, boolean measured) {
+    boolean success;
+    try {
+      HttpResponse<Void> response =
+          httpClient.send(request(operation), HttpResponse.BodyHandlers.discarding());
+      success = response.statusCode() < 400;
+    } catch (IOException e) {
+      success = false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    if (measured) {
+      long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+      latencies.get(operation).recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+      if (!success) {
+        errors.get(operation).increment();
+      }
+    }
+  }
+
+  private HttpRequest request(Operation operation) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    String account = baseUrl + "/" + nextAccountId(random);
+    String currency = CURRENCIES[random.nextInt(CURRENCIES.length)];
+    return switch (operation) {
+      case CREATE -> post(baseUrl, "{\"name\":\"load-" + random.nextInt(1_000_000) + "\"}");
+      case DEPOSIT -> post(account + "/deposit", moneyBody(currency));
+      case DEBIT -> post(account + "/debit", moneyBody(currency));
+      case BALANCE -> HttpRequest.newBuilder(URI.create(account)).GET().build();
+      case EXCHANGE ->
+          post(
+              account + "/currency",
+              "{\"fromCurrency\":\"EUR\",\"toCurrency\":\""
+                  + currency
+                  + "\",\"amount\":1.00}");
+    };
+  }
+
+  /** Picks one of the first {@code hotAccounts} with probability {@code hotShare}. */
+  private long nextAccountId(ThreadLocalRandom random) {
+    int hot = settings.hotAccounts();
+    if (hot > 0 && random.nextDouble() < settings.hotShare()) {
+      return accountIds.get(random.nextInt(hot));
+    }
+    return accountIds.get(random.nextInt(accountIds.size()));
+  }
+
+  private Operation nextOperation() {
+    return weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+  }
+
+  private static String moneyBody(String currency) {
+    return "{\"amount\":1.00,\"currency\":\"" + currency + "\"}";
+  }
+
+  private static HttpRequest post(String url, String body) {
+    return HttpRequest.newBuilder(URI.create(url))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+  }
+}
@@ -0,0 +1,117 @@
+package com.homework.bankaccount.loadtest;
+
+import com.homework.bankaccount.BankaccountApplication;
+import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
+import com.homework.bankaccount.httpclient.response.ExternalSystemResponse;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * Boots the application on a random port against an embedded PostgreSQL (or {@code
+ * loadtest.datasource-url}) with the external system stubbed, seeds accounts and drives the
+ * configured traffic mix. Run with {@code ./gradlew loadTest -Ploadtest.rate=1000}.
+ */
+public class LoadTest {
+
+  private static final String SEED_AMOUNT = "1000000000";
+
+  public static void main(String[] args) throws Exception {
+    LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+    EmbeddedPostgres postgres =
+        settings.datasourceUrl().isBlank() ? EmbeddedPostgres.start() : null;
+    String url =
+        postgres != null ? postgres.getJdbcUrl("postgres", "postgres") : settings.datasourceUrl();
+    try (ConfigurableApplicationContext context = start(settings, url)) {
+      String baseUrl =
+          "http://localhost:"
+              + context.getEnvironment().getProperty("local.server.port")
+              + "/api/v1/bankaccount";
+      List<Long> accountIds = seedAccounts(baseUrl, settings.accounts());
+      LoadTestReport report = new LoadGenerator(settings, baseUrl, accountIds).run();
+      report.print(System.out);
+      report.write(settings.reportDir());
+      System.out.println("Histograms written to " + settings.reportDir().toAbsolutePath());
+    } finally {
+      if (postgres != null) {
+        postgres.close();
+      }
+    }
+  }
+
+  private static ConfigurableApplicationContext start(LoadTestSettings settings, String url) {
+    long latencyMillis = settings.externalSystemLatency().toMillis();
+    return new SpringApplicationBuilder(BankaccountApplication.class)
+        .properties(
+            "server.port=0",
+            "spring.datasource.url=" + url,
+            "spring.datasource.username=" + settings.datasourceUsername(),
+            "spring.datasource.password=" + settings.datasourcePassword(),
+            "spring.jpa.show-sql=false",
+            "spring.threads.virtual.enabled=" + settings.virtualThreads(),
+            "logging.level.root=WARN")
+        .initializers(
+            ctx ->
+                ((GenericApplicationContext) ctx)
+                    .registerBean(
+                        "stubExternalSystemRestClient",
+                        ExternalSystemRestClient.class,
+                        () -> stubExternalSystem(latencyMillis),
+                        definition -> definition.setPrimary(true)))
+        .run();
+  }
+
+  private static ExternalSystemRestClient stubExternalSystem(long latencyMillis) {
+    return () -> {
+      if (latencyMillis > 0) {
+        try {
+          Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return new ExternalSystemResponse(200, "OK");
+    };
+  }
+
+  /** Creates accounts funded in every currency so that debits and exchanges do not run dry. */
+  private static List<Long> seedAccounts(String baseUrl, int count)
+      throws IOException, InterruptedException {
+    HttpClient client = HttpClient.newHttpClient();
+    List<Long> ids = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      long id = Long.parseLong(send(client, baseUrl, "{\"name\":\"seed-" + i + "\"}"));
+      for (String currency : List.of("EUR", "USD", "SEK", "GBP")) {
+        send(
+            client,
+            baseUrl + "/" + id + "/deposit",
+            "{\"amount\":" + SEED_AMOUNT + ",\"currency\":\"" + currency + "\"}");
+      }
+      ids.add(id);
+    }
+    return List.copyOf(ids);
+  }
+
+  private static String send(HttpClient client, String url, String body)
+      throws IOException, InterruptedException {
+    HttpResponse<String> response =
+        client.send(
+            HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException("Seeding failed: " + response.statusCode() + " " + url);
+    }
+    return response.body();
+  }
+}
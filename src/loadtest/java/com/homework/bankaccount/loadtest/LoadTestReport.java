@@ -0,0 +1,65 @@
+package com.homework.bankaccount.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+
+/** Throughput and latency per operation; latencies are recorded in microseconds. */
+record LoadTestReport(
+    LoadTestSettings settings,
+    Duration elapsed,
+    Map<Operation, Histogram> latencies,
+    Map<Operation, LongAdder> errors) {
+
+  void print(PrintStream out) {
+    double seconds = elapsed.toNanos() / 1e9;
+    out.printf(
+        "%nTarget rate %d req/s, %s threads, measured for %.1f s%n",
+        settings.rate(), settings.virtualThreads() ? "virtual" : "platform", seconds);
+    out.printf(
+        "%-10s %10s %10s %8s %10s %10s %10s %10s%n",
+        "operation", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+    latencies.forEach(
+        (operation, histogram) -> {
+          if (histogram.getTotalCount() == 0) {
+            return;
+          }
+          out.printf(
+              "%-10s %10d %10.1f %8d %10.2f %10.2f %10.2f %10.2f%n",
+              operation,
+              histogram.getTotalCount(),
+              histogram.getTotalCount() / seconds,
+              errors.get(operation).sum(),
+              millis(histogram.getValueAtPercentile(50)),
+              millis(histogram.getValueAtPercentile(99)),
+              millis(histogram.getValueAtPercentile(99.9)),
+              millis(histogram.getMaxValue()));
+        });
+  }
+
+  /** Writes one HdrHistogram percentile distribution ({@code .hgrm}) per operation. */
+  void write(Path dir) throws IOException {
+    Files.createDirectories(dir);
+    for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+      if (entry.getValue().getTotalCount() == 0) {
+        continue;
+      }
+      Path file = dir.resolve(entry.getKey().name().toLowerCase() + ".hgrm");
+      try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+        entry.getValue().outputPercentileDistribution(out, 1000.0);
+      }
+    }
+    try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve("summary.txt")))) {
+      print(out);
+    }
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000.0;
+  }
+}
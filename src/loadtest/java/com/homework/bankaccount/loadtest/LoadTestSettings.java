@@ -0,0 +1,79 @@
+package com.homework.bankaccount.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Load test parameters, read from {@code loadtest.*} system properties.
+ *
+ * @param rate requests per second, issued on schedule regardless of response times
+ * @param mix relative weight of each operation, e.g. {@code deposit=40,debit=30,balance=30}
+ * @param hotAccounts number of accounts receiving {@code hotShare} of the traffic
+ * @param virtualThreads run the application with {@code spring.threads.virtual.enabled}
+ * @param datasourceUrl an existing database to run against; an embedded PostgreSQL if blank
+ */
+public record LoadTestSettings(
+    int rate,
+    Duration warmup,
+    Duration duration,
+    Map<Operation, Integer> mix,
+    int accounts,
+    int hotAccounts,
+    double hotShare,
+    Duration externalSystemLatency,
+    boolean virtualThreads,
+    String datasourceUrl,
+    String datasourceUsername,
+    String datasourcePassword,
+    Path reportDir) {
+
+  public static LoadTestSettings fromSystemProperties() {
+    LoadTestSettings settings =
+        new LoadTestSettings(
+            Integer.parseInt(property("rate", "500")),
+            DurationStyle.detectAndParse(property("warmup", "10s")),
+            DurationStyle.detectAndParse(property("duration", "60s")),
+            parseMix(property("mix", "create=2,deposit=30,debit=25,balance=35,exchange=8")),
+            Integer.parseInt(property("accounts", "1000")),
+            Integer.parseInt(property("hot-accounts", "10")),
+            Double.parseDouble(property("hot-share", "0.5")),
+            DurationStyle.detectAndParse(property("external-system-latency", "0s")),
+            Boolean.parseBoolean(property("virtual-threads", "false")),
+            property("datasource-url", ""),
+            property("datasource-username", "postgres"),
+            property("datasource-password", ""),
+            Path.of(property("report-dir", "build/reports/loadtest")));
+    if (settings.rate <= 0 || settings.accounts <= 0) {
+      throw new IllegalArgumentException("rate and accounts must be positive");
+    }
+    if (settings.hotAccounts > settings.accounts) {
+      throw new IllegalArgumentException("hot-accounts must not exceed accounts");
+    }
+    if (settings.hotShare < 0 || settings.hotShare > 1) {
+      throw new IllegalArgumentException("hot-share must be between 0 and 1");
+    }
+    return settings;
+  }
+
+  static Map<Operation, Integer> parseMix(String mix) {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    for (String part : mix.split(",")) {
+      String[] weight = part.trim().split("=");
+      if (weight.length != 2) {
+        throw new IllegalArgumentException("Invalid mix entry: " + part);
+      }
+      weights.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1]));
+    }
+    if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+      throw new IllegalArgumentException("Mix has no traffic: " + mix);
+    }
+    return weights;
+  }
+
+  private static String property(String name, String defaultValue) {
+    return System.getProperty("loadtest." + name, defaultValue);
+  }
+}
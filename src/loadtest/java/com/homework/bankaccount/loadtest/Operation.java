@@ -0,0 +1,9 @@
+package com.homework.bankaccount.loadtest;
+
+public enum Operation {
+  CREATE,
+  DEPOSIT,
+  DEBIT,
+  BALANCE,
+  EXCHANGE
+}
@@ -0,0 +1,230 @@
+package com.homework.bankaccount.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Starts the packaged application as a separate JVM against an embedded PostgreSQL, in each of
+ * the {@code startup.modes} ({@code jvm}, {@code cds}, {@code aot}, {@code cds-aot}), and measures
+ * the time from launching the process to the first successful request. The jar is extracted
+ * first, as class data sharing needs, and a CDS archive is recorded per mode with a training run
+ * that exits after the context refresh. Run with {@code ./gradlew startupBenchmark}.
+ */
+public class StartupBenchmark {
+
+  private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+  private enum Mode {
+    JVM(false, false),
+    CDS(true, false),
+    AOT(false, true),
+    CDS_AOT(true, true);
+
+    private final boolean cds;
+    private final boolean aot;
+
+    Mode(boolean cds, boolean aot) {
+      this.cds = cds;
+      this.aot = aot;
+    }
+
+    static Mode parse(String name) {
+      return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+
+    String label() {
+      return name().replace('_', '-').toLowerCase(Locale.ROOT);
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    Path jar = Path.of(property("jar", null));
+    Path workDir = Path.of(property("work-dir", "build/startup"));
+    Path reportDir = Path.of(property("report-dir", "build/reports/startup"));
+    int runs = Integer.parseInt(property("runs", "5"));
+    List<Mode> modes =
+        Arrays.stream(property("modes", "jvm,cds,aot,cds-aot").split(","))
+            .map(Mode::parse)
+            .toList();
+
+    Path application = extract(jar, workDir);
+    Map<Mode, List<Duration>> results = new LinkedHashMap<>();
+    try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+      String url = postgres.getJdbcUrl("postgres", "postgres");
+      for (Mode mode : modes) {
+        Path archive = workDir.resolve(mode.label() + ".jsa");
+        if (mode.cds) {
+          train(application, mode, archive, url, workDir);
+        }
+        // Unmeasured: migrates the empty database and warms the file system cache.
+        timeToFirstRequest(application, mode, archive, url, workDir);
+        List<Duration> times = new ArrayList<>(runs);
+        for (int i = 0; i < runs; i++) {
+          times.add(timeToFirstRequest(application, mode, archive, url, workDir));
+        }
+        results.put(mode, times);
+      }
+    }
+
+    print(results, System.out);
+    Files.createDirectories(reportDir);
+    Path summary = reportDir.resolve("summary.txt");
+    try (PrintStream out = new PrintStream(Files.newOutputStream(summary))) {
+      print(results, out);
+    }
+    System.out.println("Summary written to " + summary.toAbsolutePath());
+  }
+
+  private static Path extract(Path jar, Path workDir) throws IOException, InterruptedException {
+    Path destination = workDir.resolve("application");
+    FileSystemUtils.deleteRecursively(destination);
+    Files.createDirectories(workDir);
+    run(
+        List.of(
+            java(),
+            "-Djarmode=tools",
+            "-jar",
+            jar.toString(),
+            "extract",
+            "--destination",
+            destination.toString()),
+        workDir.resolve("extract.log"));
+    return destination.resolve(jar.getFileName());
+  }
+
+  private static void train(Path application, Mode mode, Path archive, String url, Path workDir)
+      throws IOException, InterruptedException {
+    Files.deleteIfExists(archive);
+    List<String> command =
+        new ArrayList<>(
+            List.of(
+                java(), "-XX:ArchiveClassesAtExit=" + archive, "-Dspring.context.exit=onRefresh"));
+    if (mode.aot) {
+      command.add("-Dspring.aot.enabled=true");
+    }
+    command.addAll(applicationArgs(application, url, freePort()));
+    run(command, workDir.resolve(mode.label() + "-training.log"));
+  }
+
+  private static Duration timeToFirstRequest(
+      Path application, Mode mode, Path archive, String url, Path workDir)
+      throws IOException, InterruptedException {
+    int port = freePort();
+    List<String> command = new ArrayList<>(List.of(java()));
+    if (mode.cds) {
+      command.add("-XX:SharedArchiveFile=" + archive);
+    }
+    if (mode.aot) {
+      command.add("-Dspring.aot.enabled=true");
+    }
+    command.addAll(applicationArgs(application, url, port));
+
+    HttpClient client = HttpClient.newHttpClient();
+    HttpRequest request =
+        HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/v1/bankaccount?limit=1"))
+            .timeout(Duration.ofSeconds(5))
+            .build();
+    long start = System.nanoTime();
+    Process process =
+        new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(workDir.resolve(mode.label() + ".log").toFile())
+            .start();
+    try {
+      while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+        if (!process.isAlive()) {
+          throw new IllegalStateException(
+              "Application exited with " + process.exitValue() + ", see " + mode.label() + ".log");
+        }
+        try {
+          if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+            return Duration.ofNanos(System.nanoTime() - start);
+          }
+        } catch (ConnectException e) {
+          // Not listening yet.
+        }
+        Thread.sleep(5);
+      }
+      throw new IllegalStateException("Application did not answer within " + STARTUP_TIMEOUT);
+    } finally {
+      process.destroy();
+      if (!process.waitFor(30, TimeUnit.SECONDS)) {
+        process.destroyForcibly().waitFor();
+      }
+    }
+  }
+
+  private static List<String> applicationArgs(Path application, String url, int port) {
+    return List.of(
+        "-jar",
+        application.toString(),
+        "--spring.profiles.active=prod",
+        "--server.port=" + port,
+        "--spring.datasource.url=" + url,
+        "--spring.datasource.username=postgres",
+        "--spring.datasource.password=",
+        "--logging.level.root=WARN");
+  }
+
+  private static void run(List<String> command, Path log)
+      throws IOException, InterruptedException {
+    Process process =
+        new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+    if (!process.waitFor(5, TimeUnit.MINUTES) || process.exitValue() != 0) {
+      process.destroyForcibly();
+      throw new IllegalStateException("Command failed, see " + log + ": " + command);
+    }
+  }
+
+  private static void print(Map<Mode, List<Duration>> results, PrintStream out) {
+    out.printf("%n%-8s %6s %10s %10s %10s%n", "mode", "runs", "min ms", "median ms", "max ms");
+    results.forEach(
+        (mode, times) -> {
+          List<Long> millis = times.stream().map(Duration::toMillis).sorted().toList();
+          out.printf(
+              "%-8s %6d %10d %10d %10d%n",
+              mode.label(),
+              millis.size(),
+              millis.getFirst(),
+              millis.get(millis.size() / 2),
+              millis.getLast());
+        });
+  }
+
+  private static String java() {
+    return ProcessHandle.current().info().command().orElse("java");
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static String property(String name, String defaultValue) {
+    String value = System.getProperty("startup." + name, defaultValue);
+    if (value == null) {
+      throw new IllegalArgumentException("startup." + name + " is required");
+    }
+    return value;
+  }
+}
@@ -0,0 +1,25 @@
+package com.homework.bankaccount.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bankaccount.async-debit")
+public class AsyncDebitConfig {
+
+  private int queueCapacity = 10_000;
+
+  private int maxBatchSize = 500;
+
+  /** How long a batch waits for more debits after the first one arrives. */
+  private Duration linger = Duration.ofMillis(10);
+
+  private Duration operationRetention = Duration.ofHours(1);
+
+  private long maxOperations = 1_000_000;
+
+  private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -0,0 +1,17 @@
+package com.homework.bankaccount.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bankaccount.balance-cache")
+public class BalanceCacheConfig {
+
+  private long maximumSize = 10_000;
+
+  /** Upper bound on staleness for changes made by other application instances. */
+  private Duration ttl = Duration.ofSeconds(5);
+}
@@ -0,0 +1,22 @@
+package com.homework.bankaccount.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bankaccount.balance-stream")
+public class BalanceStreamConfig {
+
+  /** Changes within one interval are pushed to subscribers as a single update. */
+  private Duration pushInterval = Duration.ofSeconds(1);
+
+  /** Subscriptions are closed after this long; clients reconnect and get a fresh snapshot. */
+  private Duration timeout = Duration.ofMinutes(30);
+
+  private int maxSubscriptions = 50_000;
+
+  private Duration retryAfter = Duration.ofSeconds(5);
+}
@@ -0,0 +1,26 @@
+package com.homework.bankaccount.config;
+
+import com.homework.bankaccount.enums.ConcurrencyMode;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bankaccount.concurrency")
+public class ConcurrencyConfig {
+
+  private ConcurrencyMode mode = ConcurrencyMode.PESSIMISTIC;
+
+  /** Accounts whose balances are always locked, also in {@code OPTIMISTIC} mode. */
+  private Set<Long> hotAccountIds = new HashSet<>();
+
+  private int maxAttempts = 5;
+
+  private Duration initialBackoff = Duration.ofMillis(5);
+
+  private Duration maxBackoff = Duration.ofMillis(200);
+}
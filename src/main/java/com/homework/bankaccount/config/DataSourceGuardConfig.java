@@ -0,0 +1,17 @@
+package com.homework.bankaccount.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bankaccount.datasource-guard")
+public class DataSourceGuardConfig {
+
+  /** Concurrently borrowed connections; defaults to the Hikari maximum pool size. */
+  private Integer maxConcurrent;
+
+  private Duration acquireTimeout = Duration.ofSeconds(2);
+}
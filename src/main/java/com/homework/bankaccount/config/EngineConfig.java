@@ -0,0 +1,21 @@
+package com.homework.bankaccount.config;
+
+import com.homework.bankaccount.enums.EngineMode;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bankaccount.engine")
+public class EngineConfig {
+
+  private EngineMode mode = EngineMode.JPA;
+
+  private int shards = Runtime.getRuntime().availableProcessors();
+
+  private int journalBatchSize = 500;
+
+  private Duration journalFlushInterval = Duration.ofMillis(20);
+}
@@ -0,0 +1,20 @@
+package com.homework.bankaccount.config;
+
+import com.homework.bankaccount.enums.RateSource;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bankaccount.rates")
+public class ExchangeRateConfig {
+
+  private RateSource source = RateSource.STUB;
+
+  /** Properties file with one {@code CURRENCY=rate-to-EUR} line per currency. */
+  private String file;
+
+  private Duration refreshInterval = Duration.ofSeconds(60);
+}
@@ -0,0 +1,27 @@
+package com.homework.bankaccount.config;
+
+import com.homework.bankaccount.rates.ExchangeRateProvider;
+import com.homework.bankaccount.rates.FileExchangeRateProvider;
+import com.homework.bankaccount.rates.StubExchangeRateProvider;
+import java.nio.file.Path;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@RequiredArgsConstructor
+public class ExchangeRateProviderConfig {
+
+  private final ExchangeRateConfig exchangeRateConfig;
+
+  /** Used unless another {@link ExchangeRateProvider} bean is registered. */
+  @Bean
+  @ConditionalOnMissingBean
+  public ExchangeRateProvider exchangeRateProvider() {
+    return switch (exchangeRateConfig.getSource()) {
+      case STUB -> new StubExchangeRateProvider();
+      case FILE -> new FileExchangeRateProvider(Path.of(exchangeRateConfig.getFile()));
+    };
+  }
+}
@@ -1,5 +1,6 @@
 package com.homework.bankaccount.config;
 
+import java.time.Duration;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
@@ -10,4 +11,24 @@ import org.springframework.stereotype.Component;
 public class ExternalSystemConfig {
 
   private String url;
+
+  private int maxConnections = 50;
+
+  private Duration connectTimeout = Duration.ofSeconds(1);
+
+  private Duration readTimeout = Duration.ofSeconds(2);
+
+  private Duration connectionRequestTimeout = Duration.ofMillis(200);
+
+  private Duration keepAlive = Duration.ofSeconds(30);
+
+  private int maxConcurrentCalls = 20;
+
+  private int failureThreshold = 5;
+
+  private Duration openDuration = Duration.ofSeconds(10);
+
+  private Duration verdictTtl = Duration.ofSeconds(1);
+
+  private Duration failureTtl = Duration.ofMillis(500);
 }
@@ -1,42 +1,85 @@
 package com.homework.bankaccount.config;
 
+import com.homework.bankaccount.httpclient.CachingExternalSystemRestClient;
+import com.homework.bankaccount.httpclient.CircuitBreaker;
 import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
+import com.homework.bankaccount.httpclient.ResilientExternalSystemRestClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.ClientHttpRequestInterceptor;
-import org.springframework.http.client.ClientHttpResponse;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.support.RestClientAdapter;
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 
 @Configuration
 @RequiredArgsConstructor
-@Slf4j
 public class ExternalSystemRestClientConfig {
 
   private final ExternalSystemConfig externalSystemConfig;
 
   @Bean
-  public ExternalSystemRestClient externalSystemRestClient() {
+  public CloseableHttpClient externalSystemHttpClient() {
+    PoolingHttpClientConnectionManager connectionManager =
+        PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(externalSystemConfig.getMaxConnections())
+            .setMaxConnPerRoute(externalSystemConfig.getMaxConnections())
+            .setDefaultConnectionConfig(
+                ConnectionConfig.custom()
+                    .setConnectTimeout(timeout(externalSystemConfig.getConnectTimeout()))
+                    .setSocketTimeout(timeout(externalSystemConfig.getReadTimeout()))
+                    .build())
+            .build();
+
+    TimeValue keepAlive = TimeValue.ofMilliseconds(externalSystemConfig.getKeepAlive().toMillis());
+    return HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(
+            RequestConfig.custom()
+                .setConnectionRequestTimeout(
+                    timeout(externalSystemConfig.getConnectionRequestTimeout()))
+                .setResponseTimeout(timeout(externalSystemConfig.getReadTimeout()))
+                .build())
+        .setKeepAliveStrategy((response, context) -> keepAlive)
+        .evictIdleConnections(keepAlive)
+        .evictExpiredConnections()
+        .build();
+  }
+
+  @Bean
+  public CachingExternalSystemRestClient externalSystemRestClient(
+      CloseableHttpClient externalSystemHttpClient, MeterRegistry meterRegistry) {
     RestClient restClient =
         RestClient.builder()
-            .requestInterceptor(createInterceptorForLogging())
-            .requestFactory(new SimpleClientHttpRequestFactory())
+            .requestFactory(new HttpComponentsClientHttpRequestFactory(externalSystemHttpClient))
             .baseUrl(externalSystemConfig.getUrl())
             .build();
     RestClientAdapter adapter = RestClientAdapter.create(restClient);
     HttpServiceProxyFactory factory = HttpServiceProxyFactory.builderFor(adapter).build();
-    return factory.createClient(ExternalSystemRestClient.class);
+    ExternalSystemRestClient resilientClient =
+        new ResilientExternalSystemRestClient(
+            factory.createClient(ExternalSystemRestClient.class),
+            new CircuitBreaker(
+                externalSystemConfig.getFailureThreshold(), externalSystemConfig.getOpenDuration()),
+            externalSystemConfig.getMaxConcurrentCalls(),
+            meterRegistry);
+    return new CachingExternalSystemRestClient(
+        resilientClient,
+        externalSystemConfig.getVerdictTtl(),
+        externalSystemConfig.getFailureTtl());
   }
 
-  private ClientHttpRequestInterceptor createInterceptorForLogging() {
-    return (request, body, execution) -> {
-      ClientHttpResponse response = execution.execute(request, body);
-      log.info("External System response status: {}", response.getStatusCode());
-      return response;
-    };
+  private static Timeout timeout(Duration duration) {
+    return Timeout.ofMilliseconds(duration.toMillis());
   }
 }
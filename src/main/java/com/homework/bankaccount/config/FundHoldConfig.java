@@ -0,0 +1,16 @@
+package com.homework.bankaccount.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bankaccount.holds")
+public class FundHoldConfig {
+
+  private Duration ttl = Duration.ofSeconds(30);
+
+  private int sweepBatchSize = 100;
+}
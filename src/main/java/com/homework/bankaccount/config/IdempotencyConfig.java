@@ -0,0 +1,22 @@
+package com.homework.bankaccount.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bankaccount.idempotency")
+public class IdempotencyConfig {
+
+  private Duration ttl = Duration.ofHours(24);
+
+  /**
+   * Expiry of a key whose request has not completed yet, after which a retry may take it over.
+   * Must exceed {@code bankaccount.holds.ttl}, so a debit cannot settle after its key expired.
+   */
+  private Duration claimTtl = Duration.ofMinutes(1);
+
+  private long cacheMaximumSize = 100_000;
+}
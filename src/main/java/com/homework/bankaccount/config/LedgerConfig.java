@@ -0,0 +1,13 @@
+package com.homework.bankaccount.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bankaccount.ledger")
+public class LedgerConfig {
+
+  private int partitionsAhead = 2;
+}
@@ -0,0 +1,55 @@
+package com.homework.bankaccount.config;
+
+import com.homework.bankaccount.jdbc.ChangelogFingerprintStore;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * With {@code bankaccount.liquibase.skip-when-current=true}, Liquibase does not run when the
+ * changelog is unchanged since the last successful migration. Liquibase would otherwise parse the
+ * changelog, take its lock and compare every changeset's checksum on each startup.
+ */
+@Slf4j
+@Configuration
+public class LiquibaseConfig {
+
+  @Bean
+  static BeanPostProcessor liquibaseFingerprintPostProcessor(
+      ObjectProvider<LiquibaseFingerprintConfig> liquibaseFingerprintConfig) {
+    Map<String, String> pendingFingerprints = new ConcurrentHashMap<>();
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        LiquibaseFingerprintConfig config = liquibaseFingerprintConfig.getObject();
+        if (!(bean instanceof SpringLiquibase liquibase) || !config.isSkipWhenCurrent()) {
+          return bean;
+        }
+        String fingerprint = ChangelogFingerprintStore.compute(config.getChangelogFiles());
+        ChangelogFingerprintStore store = new ChangelogFingerprintStore(liquibase.getDataSource());
+        if (store.find(liquibase.getChangeLog()).filter(fingerprint::equals).isPresent()) {
+          log.info("Changelog {} is already applied, skipping Liquibase", liquibase.getChangeLog());
+          liquibase.setShouldRun(false);
+        } else {
+          pendingFingerprints.put(beanName, fingerprint);
+        }
+        return bean;
+      }
+
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        String fingerprint = pendingFingerprints.remove(beanName);
+        if (fingerprint != null && bean instanceof SpringLiquibase liquibase) {
+          new ChangelogFingerprintStore(liquibase.getDataSource())
+              .save(liquibase.getChangeLog(), fingerprint);
+        }
+        return bean;
+      }
+    };
+  }
+}
@@ -0,0 +1,20 @@
+package com.homework.bankaccount.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bankaccount.liquibase")
+public class LiquibaseFingerprintConfig {
+
+  /**
+   * Skip Liquibase on startup when the changelog files hash to the fingerprint stored by the
+   * last successful migration.
+   */
+  private boolean skipWhenCurrent = false;
+
+  /** Files hashed into the fingerprint; must cover every file the changelog includes. */
+  private String changelogFiles = "classpath*:db/changelog/**/*.xml";
+}
@@ -0,0 +1,25 @@
+package com.homework.bankaccount.config;
+
+import com.homework.bankaccount.enums.EventSinkType;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bankaccount.outbox")
+public class OutboxConfig {
+
+  /** Whether this instance relays events; exactly one instance should. */
+  private boolean enabled = true;
+
+  private EventSinkType sink = EventSinkType.LOG;
+
+  /** NDJSON file appended to by the {@code FILE} sink. */
+  private String file = "balance-events.ndjson";
+
+  private int batchSize = 500;
+
+  private Duration pollInterval = Duration.ofMillis(200);
+}
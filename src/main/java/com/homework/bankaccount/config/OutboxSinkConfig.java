@@ -0,0 +1,30 @@
+package com.homework.bankaccount.config;
+
+import com.homework.bankaccount.outbox.BalanceEventSink;
+import com.homework.bankaccount.outbox.FileBalanceEventSink;
+import com.homework.bankaccount.outbox.InMemoryBalanceEventSink;
+import com.homework.bankaccount.outbox.LoggingBalanceEventSink;
+import java.nio.file.Path;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tools.jackson.databind.json.JsonMapper;
+
+@Configuration
+@RequiredArgsConstructor
+public class OutboxSinkConfig {
+
+  private final OutboxConfig outboxConfig;
+
+  /** Used unless another {@link BalanceEventSink} bean is registered. */
+  @Bean
+  @ConditionalOnMissingBean
+  public BalanceEventSink balanceEventSink(JsonMapper jsonMapper) {
+    return switch (outboxConfig.getSink()) {
+      case LOG -> new LoggingBalanceEventSink();
+      case FILE -> new FileBalanceEventSink(Path.of(outboxConfig.getFile()), jsonMapper);
+      case MEMORY -> new InMemoryBalanceEventSink();
+    };
+  }
+}
@@ -0,0 +1,63 @@
+package com.homework.bankaccount.config;
+
+import com.homework.bankaccount.jdbc.AdmissionControlledDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Active with {@code spring.threads.virtual.enabled=true}, which runs Tomcat requests, scheduled
+ * jobs and therefore the blocking external system call on virtual threads. Wraps the data source
+ * in an {@link AdmissionControlledDataSource} so the unbounded number of request threads queues
+ * for connections in one fair line.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+  @Bean
+  static BeanPostProcessor dataSourceGuardPostProcessor(
+      ObjectProvider<DataSourceGuardConfig> dataSourceGuardConfig) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof HikariDataSource dataSource)) {
+          return bean;
+        }
+        DataSourceGuardConfig config = dataSourceGuardConfig.getObject();
+        int maxConcurrent =
+            config.getMaxConcurrent() != null
+                ? config.getMaxConcurrent()
+                : dataSource.getMaximumPoolSize();
+        return new AdmissionControlledDataSource(
+            dataSource, maxConcurrent, config.getAcquireTimeout());
+      }
+    };
+  }
+
+  @Bean
+  MeterBinder dataSourceGuardMetrics(DataSource dataSource) {
+    return registry -> {
+      if (dataSource instanceof AdmissionControlledDataSource guarded) {
+        bind(registry, guarded);
+      }
+    };
+  }
+
+  private static void bind(MeterRegistry registry, AdmissionControlledDataSource dataSource) {
+    Gauge.builder("bankaccount.datasource.guard.waiting", dataSource::getQueueLength)
+        .description("Threads waiting for a database connection permit")
+        .register(registry);
+    Gauge.builder("bankaccount.datasource.guard.available", dataSource::getAvailablePermits)
+        .description("Database connection permits available")
+        .register(registry);
+  }
+}
@@ -0,0 +1,27 @@
+package com.homework.bankaccount.controller;
+
+import com.homework.bankaccount.request.BulkCreateAccountsRequest;
+import com.homework.bankaccount.response.BulkCreateAccountsResponse;
+import com.homework.bankaccount.service.BankAccountService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Collection-level custom method, mapped here because a {@code :bulk} suffix cannot be appended to
+ * the {@code /api/v1/bankaccount} prefix of {@link BankAccountController} without a slash.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1")
+public class BankAccountBulkController {
+
+  private final BankAccountService bankAccountService;
+
+  @PostMapping("/bankaccount:bulk")
+  public ResponseEntity<BulkCreateAccountsResponse> createAccounts(
+      @Valid @RequestBody BulkCreateAccountsRequest request) {
+    return ResponseEntity.ok(bankAccountService.createAccounts(request));
+  }
+}
@@ -1,23 +1,50 @@
 package com.homework.bankaccount.controller;
 
 import com.homework.bankaccount.entities.BankAccountEntity;
+import com.homework.bankaccount.enums.StatementFormat;
+import com.homework.bankaccount.exception.BadRequestException;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.request.BalanceLookupRequest;
+import com.homework.bankaccount.request.BatchTransactionRequest;
 import com.homework.bankaccount.request.CreateAccountRequest;
 import com.homework.bankaccount.request.CurrencyExchangeRequest;
 import com.homework.bankaccount.request.MoneyRequest;
+import com.homework.bankaccount.request.TransferRequest;
+import com.homework.bankaccount.response.AccountBalances;
+import com.homework.bankaccount.response.AccountBalancesResponse;
+import com.homework.bankaccount.response.AccountPage;
 import com.homework.bankaccount.response.BalanceResponse;
+import com.homework.bankaccount.response.BatchTransactionResponse;
+import com.homework.bankaccount.response.OperationResponse;
+import com.homework.bankaccount.response.TransferResponse;
+import com.homework.bankaccount.service.AsyncDebitService;
+import com.homework.bankaccount.service.BalanceStreamService;
 import com.homework.bankaccount.service.BankAccountService;
+import com.homework.bankaccount.service.StatementService;
 import jakarta.validation.Valid;
+import java.net.URI;
+import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/bankaccount")
 public class BankAccountController {
 
+  private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
   private final BankAccountService bankAccountService;
+  private final AsyncDebitService asyncDebitService;
+  private final StatementService statementService;
+  private final BalanceStreamService balanceStreamService;
 
   @PostMapping()
   public ResponseEntity<?> createAccount(@Valid @RequestBody CreateAccountRequest request) {
@@ -25,31 +52,113 @@ public class BankAccountController {
     return ResponseEntity.ok(account.getId());
   }
 
+  /** Keyset pagination: pass the previous page's {@code nextAfterId} as {@code after_id}. */
+  @GetMapping()
+  public ResponseEntity<AccountPage> listAccounts(
+      @RequestParam(name = "after_id", defaultValue = "0") long afterId,
+      @RequestParam(defaultValue = "100") int limit) {
+    return ResponseEntity.ok(bankAccountService.listAccounts(afterId, limit));
+  }
+
   @PostMapping(value = "/{id}/deposit")
   public ResponseEntity<?> addMoney(
-      @PathVariable Long id, @Valid @RequestBody MoneyRequest request) {
-    bankAccountService.addMoney(id, request);
+      @PathVariable Long id,
+      @Valid @RequestBody MoneyRequest request,
+      @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+    bankAccountService.addMoney(id, request, idempotencyKey);
     return ResponseEntity.ok().build();
   }
 
+  /** With {@code mode=async} the debit is queued and 202 Accepted points to its operation. */
   @PostMapping(value = "/{id}/debit")
   public ResponseEntity<?> debitMoney(
-      @PathVariable Long id, @Valid @RequestBody MoneyRequest request) {
-    bankAccountService.debitMoney(id, request);
+      @PathVariable Long id,
+      @Valid @RequestBody MoneyRequest request,
+      @RequestParam(defaultValue = "sync") String mode,
+      @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+    if (mode.equalsIgnoreCase("async")) {
+      if (idempotencyKey != null) {
+        throw new BadRequestException("Idempotency-Key is not supported for asynchronous debits");
+      }
+      OperationResponse operation = asyncDebitService.submit(id, request);
+      return ResponseEntity.accepted()
+          .location(URI.create("/api/v1/bankaccount/operations/" + operation.id()))
+          .body(operation);
+    }
+    if (!mode.equalsIgnoreCase("sync")) {
+      throw new BadRequestException("Unknown debit mode: " + mode);
+    }
+    bankAccountService.debitMoney(id, request, idempotencyKey);
     return ResponseEntity.ok().build();
   }
 
+  @GetMapping("/operations/{operationId}")
+  public ResponseEntity<OperationResponse> getOperation(@PathVariable String operationId) {
+    return ResponseEntity.ok(asyncDebitService.getOperation(operationId));
+  }
+
+  @PostMapping("/transactions:batch")
+  public ResponseEntity<BatchTransactionResponse> processBatch(
+      @Valid @RequestBody BatchTransactionRequest request) {
+    return ResponseEntity.ok(bankAccountService.processBatch(request));
+  }
+
+  @PostMapping("/transfers")
+  public ResponseEntity<TransferResponse> transfer(@Valid @RequestBody TransferRequest request) {
+    return ResponseEntity.ok(bankAccountService.transfer(request));
+  }
+
+  @PostMapping("/balances:lookup")
+  public ResponseEntity<List<AccountBalancesResponse>> lookupBalances(
+      @Valid @RequestBody BalanceLookupRequest request) {
+    return ResponseEntity.ok(bankAccountService.lookupBalances(request.ids()));
+  }
+
+  /** Answers {@code If-None-Match} with 304 Not Modified without serializing the balances. */
   @GetMapping("/{id}")
   public ResponseEntity<List<BalanceResponse>> getAccountBalance(@PathVariable Long id) {
-    List<BalanceResponse> balances = bankAccountService.getBalance(id);
-    return ResponseEntity.ok(balances);
+    AccountBalances balances = bankAccountService.getBalance(id);
+    return ResponseEntity.ok().eTag(balances.eTag()).body(balances.balances());
+  }
+
+  /** Sends the balances as a {@code balances} event now and after every change. */
+  @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamAccountBalance(@PathVariable Long id) {
+    return balanceStreamService.subscribe(id);
+  }
+
+  /** Streams the ledger entries created in {@code [from, to)}, in {@code ndjson} or {@code csv}. */
+  @GetMapping("/{id}/statement")
+  public ResponseEntity<StreamingResponseBody> getStatement(
+      @PathVariable Long id,
+      @RequestParam Instant from,
+      @RequestParam Instant to,
+      @RequestParam(defaultValue = "ndjson") String format) {
+    StatementFormat statementFormat = StatementFormat.valueOf(format.toUpperCase(Locale.ROOT));
+    statementService.checkStatement(id, from, to);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(statementFormat.getMediaType()))
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"statement-"
+                + id
+                + "."
+                + statementFormat.name().toLowerCase(Locale.ROOT)
+                + "\"")
+        .body(out -> statementService.writeStatement(id, from, to, statementFormat, out));
   }
 
   @PostMapping("/{id}/currency")
   public ResponseEntity<?> getCurrencyExchange(
-      @PathVariable Long id, @Valid @RequestBody CurrencyExchangeRequest request) {
+      @PathVariable Long id,
+      @Valid @RequestBody CurrencyExchangeRequest request,
+      @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
     bankAccountService.exchangeCurrency(
-        id, request.fromCurrency(), request.toCurrency(), request.amount());
+        id,
+        request.fromCurrency(),
+        request.toCurrency(),
+        Money.of(request.amount()),
+        idempotencyKey);
     return ResponseEntity.ok().build();
   }
 }
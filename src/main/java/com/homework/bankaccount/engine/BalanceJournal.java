@@ -0,0 +1,162 @@
+package com.homework.bankaccount.engine;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.money.Money;
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind persistence for the sharded engine. Shards append entries without waiting; a single
+ * flusher thread writes them to Postgres in batches, one transaction per batch, inserting every
+ * ledger entry and upserting only the latest state of each balance.
+ */
+@Slf4j
+class BalanceJournal implements Runnable {
+
+  private static final String INSERT_LEDGER_ENTRY =
+      """
+      INSERT INTO ledger_entry
+          (bank_account_id, currency, seq, amount, balance_after, entry_type, rate_version)
+      VALUES (?, ?, ?, ?, ?, ?, ?)
+      """;
+
+  private static final String UPSERT_BALANCE =
+      """
+      INSERT INTO balance (bank_account_id, currency, amount, ledger_seq)
+      VALUES (?, ?, ?, ?)
+      ON CONFLICT (bank_account_id, currency)
+      DO UPDATE SET amount = EXCLUDED.amount, ledger_seq = EXCLUDED.ledger_seq,
+                    version = balance.version + 1
+      WHERE balance.ledger_seq < EXCLUDED.ledger_seq
+      """;
+
+  private record BalanceKey(Long accountId, Currency currency) {}
+
+  private final Queue<JournalEntry> pending = new ConcurrentLinkedQueue<>();
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private final long flushIntervalNanos;
+
+  private volatile Thread flusher;
+  private volatile boolean running;
+  private volatile int inFlight;
+
+  BalanceJournal(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      int batchSize,
+      long flushIntervalNanos) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.batchSize = batchSize;
+    this.flushIntervalNanos = flushIntervalNanos;
+  }
+
+  void append(JournalEntry entry) {
+    pending.offer(entry);
+  }
+
+  void start(String name) {
+    running = true;
+    flusher = Thread.ofPlatform().name(name).daemon().start(this);
+  }
+
+  void stop() throws InterruptedException {
+    running = false;
+    LockSupport.unpark(flusher);
+    flusher.join(TimeUnit.SECONDS.toMillis(30));
+    if (flusher.isAlive()) {
+      flusher.interrupt();
+      flusher.join(TimeUnit.SECONDS.toMillis(1));
+    }
+    int unwritten = pending.size() + inFlight;
+    if (unwritten > 0) {
+      log.error("Balance journal stopped with {} unwritten entries", unwritten);
+    }
+  }
+
+  @Override
+  public void run() {
+    while (running || !pending.isEmpty()) {
+      List<JournalEntry> batch = drain();
+      if (batch.isEmpty()) {
+        LockSupport.parkNanos(this, flushIntervalNanos);
+        continue;
+      }
+      // Entries were already acknowledged by the shards, so a failing batch is retried until
+      // stop() gives up on it rather than dropped when running is cleared.
+      inFlight = batch.size();
+      while (!write(batch)) {
+        if (Thread.currentThread().isInterrupted()) {
+          return;
+        }
+        LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(1));
+      }
+      inFlight = 0;
+    }
+  }
+
+  private List<JournalEntry> drain() {
+    List<JournalEntry> batch = new ArrayList<>(batchSize);
+    JournalEntry entry;
+    while (batch.size() < batchSize && (entry = pending.poll()) != null) {
+      batch.add(entry);
+    }
+    return batch;
+  }
+
+  private boolean write(List<JournalEntry> batch) {
+    Map<BalanceKey, JournalEntry> latest = new LinkedHashMap<>();
+    for (JournalEntry entry : batch) {
+      latest.put(new BalanceKey(entry.accountId(), entry.currency()), entry);
+    }
+
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            jdbcTemplate.batchUpdate(
+                INSERT_LEDGER_ENTRY,
+                batch,
+                batch.size(),
+                (ps, entry) -> {
+                  ps.setLong(1, entry.accountId());
+                  ps.setString(2, entry.currency().name());
+                  ps.setLong(3, entry.seq());
+                  ps.setBigDecimal(4, BigDecimal.valueOf(entry.deltaUnits(), Money.SCALE));
+                  ps.setBigDecimal(
+                      5, BigDecimal.valueOf(entry.balanceAfterUnits(), Money.SCALE));
+                  ps.setString(6, entry.entryType().name());
+                  ps.setObject(7, entry.rateVersion(), Types.BIGINT);
+                });
+            jdbcTemplate.batchUpdate(
+                UPSERT_BALANCE,
+                latest.values(),
+                latest.size(),
+                (ps, entry) -> {
+                  ps.setLong(1, entry.accountId());
+                  ps.setString(2, entry.currency().name());
+                  ps.setBigDecimal(
+                      3, BigDecimal.valueOf(entry.balanceAfterUnits(), Money.SCALE));
+                  ps.setLong(4, entry.seq());
+                });
+          });
+      return true;
+    } catch (DataAccessException e) {
+      log.error("Failed to write {} balance journal entries, retrying", batch.size(), e);
+      return false;
+    }
+  }
+}
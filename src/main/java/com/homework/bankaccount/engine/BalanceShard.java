@@ -0,0 +1,198 @@
+package com.homework.bankaccount.engine;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.LedgerEntryType;
+import com.homework.bankaccount.exception.InsufficientFundsException;
+import com.homework.bankaccount.exception.NotFoundException;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.response.AccountBalances;
+import com.homework.bankaccount.response.BalanceResponse;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Owns the balances of a subset of accounts. All state is confined to the shard's writer thread;
+ * other threads only enqueue commands, so balance updates need no locks.
+ */
+@Slf4j
+class BalanceShard implements Runnable {
+
+  private static final class Position {
+    private long units;
+    private long seq;
+  }
+
+  private final Queue<EngineCommand> commands = new ConcurrentLinkedQueue<>();
+  private final Map<Long, Map<Currency, Position>> accounts = new HashMap<>();
+  private final BalanceJournal journal;
+
+  private volatile Thread writer;
+  private volatile boolean running;
+
+  BalanceShard(BalanceJournal journal) {
+    this.journal = journal;
+  }
+
+  /** Only called during recovery, before {@link #start(String)}. */
+  void restoreAccount(Long accountId) {
+    accounts.putIfAbsent(accountId, new EnumMap<>(Currency.class));
+  }
+
+  /** Only called during recovery, before {@link #start(String)}. */
+  void restoreBalance(Long accountId, Currency currency, Money amount, long seq) {
+    Position position = new Position();
+    position.units = amount.units();
+    position.seq = seq;
+    accounts
+        .computeIfAbsent(accountId, id -> new EnumMap<>(Currency.class))
+        .put(currency, position);
+  }
+
+  void start(String name) {
+    running = true;
+    writer = Thread.ofPlatform().name(name).daemon().start(this);
+  }
+
+  void stop() throws InterruptedException {
+    running = false;
+    LockSupport.unpark(writer);
+    writer.join(TimeUnit.SECONDS.toMillis(10));
+  }
+
+  void submit(EngineCommand command) {
+    commands.offer(command);
+    LockSupport.unpark(writer);
+  }
+
+  @Override
+  public void run() {
+    while (running || !commands.isEmpty()) {
+      EngineCommand command = commands.poll();
+      if (command == null) {
+        LockSupport.park(this);
+        continue;
+      }
+      try {
+        apply(command);
+      } catch (RuntimeException e) {
+        command.result().completeExceptionally(e);
+      }
+    }
+  }
+
+  private void apply(EngineCommand command) {
+    switch (command) {
+      case EngineCommand.Register register -> {
+        accounts.putIfAbsent(register.accountId(), new EnumMap<>(Currency.class));
+        register.result().complete(null);
+      }
+      case EngineCommand.Deposit deposit -> {
+        Position position =
+            balances(deposit.accountId())
+                .computeIfAbsent(deposit.currency(), currency -> new Position());
+        deposit
+            .result()
+            .complete(
+                change(
+                    deposit.accountId(),
+                    deposit.currency(),
+                    position,
+                    deposit.amount().units(),
+                    LedgerEntryType.DEPOSIT,
+                    null));
+      }
+      case EngineCommand.Debit debit -> {
+        Position position = existing(debit.accountId(), debit.currency());
+        if (position.units < debit.amount().units()) {
+          throw new InsufficientFundsException("Insufficient funds for debit");
+        }
+        debit
+            .result()
+            .complete(
+                change(
+                    debit.accountId(),
+                    debit.currency(),
+                    position,
+                    -debit.amount().units(),
+                    LedgerEntryType.DEBIT,
+                    null));
+      }
+      case EngineCommand.Exchange exchange -> {
+        Position from = existing(exchange.accountId(), exchange.fromCurrency());
+        if (from.units < exchange.amount().units()) {
+          throw new InsufficientFundsException("Insufficient funds for exchange");
+        }
+        Position to =
+            balances(exchange.accountId())
+                .computeIfAbsent(exchange.toCurrency(), currency -> new Position());
+        change(
+            exchange.accountId(),
+            exchange.fromCurrency(),
+            from,
+            -exchange.amount().units(),
+            LedgerEntryType.EXCHANGE_OUT,
+            exchange.rateVersion());
+        change(
+            exchange.accountId(),
+            exchange.toCurrency(),
+            to,
+            exchange.target().units(),
+            LedgerEntryType.EXCHANGE_IN,
+            exchange.rateVersion());
+        exchange.result().complete(null);
+      }
+      case EngineCommand.Read read -> {
+        List<BalanceResponse> balances = new ArrayList<>();
+        long version = 0;
+        for (Map.Entry<Currency, Position> entry : balances(read.accountId()).entrySet()) {
+          Position position = entry.getValue();
+          version += position.seq;
+          balances.add(
+              new BalanceResponse(
+                  BigDecimal.valueOf(position.units, Money.SCALE), entry.getKey()));
+        }
+        read.result().complete(new AccountBalances(version, balances));
+      }
+    }
+  }
+
+  private Money change(
+      Long accountId,
+      Currency currency,
+      Position position,
+      long delta,
+      LedgerEntryType entryType,
+      Long rateVersion) {
+    position.units = Math.addExact(position.units, delta);
+    position.seq++;
+    journal.append(
+        new JournalEntry(
+            accountId, currency, delta, position.units, position.seq, entryType, rateVersion));
+    return Money.ofUnits(position.units);
+  }
+
+  private Map<Currency, Position> balances(Long accountId) {
+    Map<Currency, Position> balances = accounts.get(accountId);
+    if (balances == null) {
+      throw new NotFoundException("Bank account not found: " + accountId);
+    }
+    return balances;
+  }
+
+  private Position existing(Long accountId, Currency currency) {
+    Position position = balances(accountId).get(currency);
+    if (position == null) {
+      throw new NotFoundException("Currency not found: " + currency);
+    }
+    return position;
+  }
+}
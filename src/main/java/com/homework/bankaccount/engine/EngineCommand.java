@@ -0,0 +1,34 @@
+package com.homework.bankaccount.engine;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.response.AccountBalances;
+import java.util.concurrent.CompletableFuture;
+
+sealed interface EngineCommand {
+
+  Long accountId();
+
+  CompletableFuture<?> result();
+
+  record Register(Long accountId, CompletableFuture<Void> result) implements EngineCommand {}
+
+  record Deposit(Long accountId, Currency currency, Money amount, CompletableFuture<Money> result)
+      implements EngineCommand {}
+
+  record Debit(Long accountId, Currency currency, Money amount, CompletableFuture<Money> result)
+      implements EngineCommand {}
+
+  record Exchange(
+      Long accountId,
+      Currency fromCurrency,
+      Money amount,
+      Currency toCurrency,
+      Money target,
+      long rateVersion,
+      CompletableFuture<Void> result)
+      implements EngineCommand {}
+
+  record Read(Long accountId, CompletableFuture<AccountBalances> result)
+      implements EngineCommand {}
+}
@@ -0,0 +1,13 @@
+package com.homework.bankaccount.engine;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.LedgerEntryType;
+
+record JournalEntry(
+    Long accountId,
+    Currency currency,
+    long deltaUnits,
+    long balanceAfterUnits,
+    long seq,
+    LedgerEntryType entryType,
+    Long rateVersion) {}
@@ -0,0 +1,171 @@
+package com.homework.bankaccount.engine;
+
+import com.homework.bankaccount.config.EngineConfig;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.EngineMode;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.response.AccountBalances;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Optional in-memory balance engine, enabled with {@code bankaccount.engine.mode=SHARDED}.
+ * Accounts are partitioned into shards by id, each shard applies its commands on a single writer
+ * thread, and changes are persisted asynchronously by the {@link BalanceJournal}. Balances are
+ * recovered from the database on startup, so this mode assumes a single application instance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShardedBalanceEngine implements SmartLifecycle {
+
+  private final EngineConfig engineConfig;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  private BalanceShard[] shards;
+  private BalanceJournal journal;
+  private volatile boolean running;
+
+  public boolean isEnabled() {
+    return engineConfig.getMode() == EngineMode.SHARDED;
+  }
+
+  public void registerAccount(Long accountId) {
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    execute(new EngineCommand.Register(accountId, result), result);
+  }
+
+  public Money deposit(Long accountId, Currency currency, Money amount) {
+    CompletableFuture<Money> result = new CompletableFuture<>();
+    return execute(new EngineCommand.Deposit(accountId, currency, amount, result), result);
+  }
+
+  public Money debit(Long accountId, Currency currency, Money amount) {
+    CompletableFuture<Money> result = new CompletableFuture<>();
+    return execute(new EngineCommand.Debit(accountId, currency, amount, result), result);
+  }
+
+  public void exchange(
+      Long accountId,
+      Currency fromCurrency,
+      Money amount,
+      Currency toCurrency,
+      Money target,
+      long rateVersion) {
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    execute(
+        new EngineCommand.Exchange(
+            accountId, fromCurrency, amount, toCurrency, target, rateVersion, result),
+        result);
+  }
+
+  public AccountBalances getBalance(Long accountId) {
+    CompletableFuture<AccountBalances> result = new CompletableFuture<>();
+    return execute(new EngineCommand.Read(accountId, result), result);
+  }
+
+  private <T> T execute(EngineCommand command, CompletableFuture<T> result) {
+    if (!running) {
+      throw new IllegalStateException("Sharded balance engine is not running");
+    }
+    shardFor(command.accountId()).submit(command);
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private BalanceShard shardFor(Long accountId) {
+    return shards[(int) Math.floorMod(accountId, (long) shards.length)];
+  }
+
+  @Override
+  public void start() {
+    if (!isEnabled()) {
+      return;
+    }
+    journal =
+        new BalanceJournal(
+            jdbcTemplate,
+            transactionTemplate,
+            engineConfig.getJournalBatchSize(),
+            engineConfig.getJournalFlushInterval().toNanos());
+    shards = new BalanceShard[engineConfig.getShards()];
+    for (int i = 0; i < shards.length; i++) {
+      shards[i] = new BalanceShard(journal);
+    }
+
+    recover();
+
+    for (int i = 0; i < shards.length; i++) {
+      shards[i].start("balance-shard-" + i);
+    }
+    journal.start("balance-journal");
+    running = true;
+    log.info("Sharded balance engine started with {} shards", shards.length);
+  }
+
+  private void recover() {
+    jdbcTemplate.query(
+        "SELECT id FROM bank_account",
+        (RowCallbackHandler)
+            rs -> {
+              long accountId = rs.getLong("id");
+              shardFor(accountId).restoreAccount(accountId);
+            });
+    jdbcTemplate.query(
+        "SELECT bank_account_id, currency, amount, ledger_seq FROM balance",
+        (RowCallbackHandler) this::restoreBalance);
+  }
+
+  private void restoreBalance(ResultSet rs) throws SQLException {
+    long accountId = rs.getLong("bank_account_id");
+    shardFor(accountId)
+        .restoreBalance(
+            accountId,
+            Currency.valueOf(rs.getString("currency")),
+            Money.of(rs.getBigDecimal("amount")),
+            rs.getLong("ledger_seq"));
+  }
+
+  @Override
+  public void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    try {
+      for (BalanceShard shard : shards) {
+        shard.stop();
+      }
+      journal.stop();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /** Starts before and stops after the web server, so no request sees a stopped engine. */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+}
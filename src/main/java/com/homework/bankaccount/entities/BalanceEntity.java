@@ -1,8 +1,9 @@
 package com.homework.bankaccount.entities;
 
 import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.money.MoneyConverter;
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -13,17 +14,26 @@ import lombok.Setter;
 public class BalanceEntity {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_id")
+  @SequenceGenerator(name = "balance_id", sequenceName = "balance_id_seq", allocationSize = 50)
   private Long id;
 
+  @Convert(converter = MoneyConverter.class)
   @Column(name = "amount", precision = 19, scale = 4)
-  private BigDecimal amount = BigDecimal.ZERO;
+  private Money amount = Money.ZERO;
 
   @Enumerated(EnumType.STRING)
   @Column(name = "currency")
   private Currency currency;
 
-  @ManyToOne
+  @Column(name = "ledger_seq")
+  private long ledgerSeq;
+
+  @Version
+  @Column(name = "version")
+  private long version;
+
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "bank_account_id")
   private BankAccountEntity bankAccount;
 }
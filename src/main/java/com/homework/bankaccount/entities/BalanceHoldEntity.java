@@ -0,0 +1,39 @@
+package com.homework.bankaccount.entities;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.HoldStatus;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.money.MoneyConverter;
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Table(name = "balance_hold")
+@Entity
+public class BalanceHoldEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "bank_account_id")
+  private Long bankAccountId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "currency")
+  private Currency currency;
+
+  @Convert(converter = MoneyConverter.class)
+  @Column(name = "amount", precision = 19, scale = 4)
+  private Money amount;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status")
+  private HoldStatus status;
+
+  @Column(name = "expires_at")
+  private Instant expiresAt;
+}
@@ -13,7 +13,11 @@ import lombok.Setter;
 public class BankAccountEntity {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bank_account_id")
+  @SequenceGenerator(
+      name = "bank_account_id",
+      sequenceName = "bank_account_id_seq",
+      allocationSize = 50)
   @Column(name = "id")
   private Long id;
 
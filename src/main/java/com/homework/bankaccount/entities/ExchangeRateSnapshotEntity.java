@@ -0,0 +1,24 @@
+package com.homework.bankaccount.entities;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Table(name = "exchange_rate_snapshot")
+@Entity
+public class ExchangeRateSnapshotEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "version")
+  private Long version;
+
+  @Column(name = "rates")
+  private String rates;
+
+  @Column(name = "created_at")
+  private Instant createdAt;
+}
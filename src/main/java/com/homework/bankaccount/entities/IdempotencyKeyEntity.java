@@ -0,0 +1,32 @@
+package com.homework.bankaccount.entities;
+
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.money.MoneyConverter;
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Table(name = "idempotency_key")
+@Entity
+public class IdempotencyKeyEntity {
+
+  @Id
+  @Column(name = "idempotency_key")
+  private String idempotencyKey;
+
+  @Column(name = "request")
+  private String request;
+
+  @Column(name = "completed")
+  private boolean completed;
+
+  @Convert(converter = MoneyConverter.class)
+  @Column(name = "result_balance", precision = 19, scale = 4)
+  private Money resultBalance;
+
+  @Column(name = "expires_at")
+  private Instant expiresAt;
+}
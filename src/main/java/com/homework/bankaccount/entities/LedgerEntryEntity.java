@@ -0,0 +1,54 @@
+package com.homework.bankaccount.entities;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.LedgerEntryType;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.money.MoneyConverter;
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Table(name = "ledger_entry")
+@Entity
+public class LedgerEntryEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_id")
+  @SequenceGenerator(
+      name = "ledger_entry_id",
+      sequenceName = "ledger_entry_id_seq",
+      allocationSize = 50)
+  private Long id;
+
+  @Column(name = "bank_account_id")
+  private Long bankAccountId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "currency")
+  private Currency currency;
+
+  @Column(name = "seq")
+  private long seq;
+
+  @Convert(converter = MoneyConverter.class)
+  @Column(name = "amount", precision = 19, scale = 4)
+  private Money amount;
+
+  @Convert(converter = MoneyConverter.class)
+  @Column(name = "balance_after", precision = 19, scale = 4)
+  private Money balanceAfter;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "entry_type")
+  private LedgerEntryType entryType;
+
+  /** Exchange rate snapshot used by {@code EXCHANGE_OUT} and {@code EXCHANGE_IN} entries. */
+  @Column(name = "rate_version")
+  private Long rateVersion;
+
+  @Column(name = "created_at")
+  private Instant createdAt;
+}
@@ -0,0 +1,7 @@
+package com.homework.bankaccount.enums;
+
+public enum BatchItemStatus {
+  APPLIED,
+  REJECTED,
+  NOT_APPLIED,
+}
@@ -0,0 +1,6 @@
+package com.homework.bankaccount.enums;
+
+public enum ConcurrencyMode {
+  OPTIMISTIC,
+  PESSIMISTIC,
+}
@@ -0,0 +1,7 @@
+package com.homework.bankaccount.enums;
+
+public enum EventSinkType {
+  LOG,
+  FILE,
+  MEMORY,
+}
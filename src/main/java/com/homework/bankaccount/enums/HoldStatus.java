@@ -0,0 +1,8 @@
+package com.homework.bankaccount.enums;
+
+public enum HoldStatus {
+  PENDING,
+  SETTLED,
+  RELEASED,
+  EXPIRED,
+}
@@ -0,0 +1,11 @@
+package com.homework.bankaccount.enums;
+
+public enum LedgerEntryType {
+  DEPOSIT,
+  DEBIT,
+  DEBIT_RELEASE,
+  EXCHANGE_OUT,
+  EXCHANGE_IN,
+  TRANSFER_OUT,
+  TRANSFER_IN,
+}
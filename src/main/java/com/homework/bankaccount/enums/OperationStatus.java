@@ -0,0 +1,8 @@
+package com.homework.bankaccount.enums;
+
+public enum OperationStatus {
+  PENDING,
+  COMPLETED,
+  REJECTED,
+  FAILED,
+}
@@ -0,0 +1,13 @@
+package com.homework.bankaccount.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum StatementFormat {
+  NDJSON("application/x-ndjson"),
+  CSV("text/csv");
+
+  private final String mediaType;
+}
@@ -0,0 +1,7 @@
+package com.homework.bankaccount.exception;
+
+public class ConflictException extends RuntimeException {
+  public ConflictException(String message) {
+    super(message);
+  }
+}
@@ -1,8 +1,12 @@
 package com.homework.bankaccount.exception;
 
 import java.util.Map;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -19,17 +23,44 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", ex.getMessage()));
   }
 
-  @ExceptionHandler({BadRequestException.class, IllegalArgumentException.class})
+  @ExceptionHandler({
+    BadRequestException.class,
+    IllegalArgumentException.class,
+    ArithmeticException.class
+  })
   public ResponseEntity<?> handleBadRequest(RuntimeException ex) {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", ex.getMessage()));
   }
 
+  @ExceptionHandler(ConflictException.class)
+  public ResponseEntity<?> handleConflict(ConflictException ex) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
+  }
+
+  @ExceptionHandler(TooManyRequestsException.class)
+  public ResponseEntity<?> handleTooManyRequests(TooManyRequestsException ex) {
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+        .body(Map.of("error", ex.getMessage()));
+  }
+
   @ExceptionHandler({ExternalSystemUnavailableException.class})
   public ResponseEntity<?> handleExternalSystem(ExternalSystemUnavailableException ex) {
     return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
         .body(Map.of("error", ex.getMessage()));
   }
 
+  /** Includes timeouts waiting for a connection, e.g. from the virtual-thread admission guard. */
+  @ExceptionHandler({
+    DataAccessResourceFailureException.class,
+    TransientDataAccessResourceException.class,
+    CannotCreateTransactionException.class
+  })
+  public ResponseEntity<?> handleDatabaseUnavailable(RuntimeException ex) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .body(Map.of("error", "Database unavailable"));
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<?> handleOther(Exception ex) {
     return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,130 @@
+package com.homework.bankaccount.httpclient;
+
+import com.homework.bankaccount.exception.ExternalSystemUnavailableException;
+import com.homework.bankaccount.httpclient.response.ExternalSystemResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * The external system answers with a service-wide verdict, not one specific to a debit, so the
+ * verdict is cached for {@code ttl} (failures for {@code failureTtl}) and concurrent callers on a
+ * cache miss share a single in-flight request.
+ */
+public class CachingExternalSystemRestClient implements ExternalSystemRestClient, MeterBinder {
+
+  private record Verdict(ExternalSystemResponse response, String failure, long expiresAt) {
+
+    ExternalSystemResponse unwrap() {
+      if (failure != null) {
+        throw new ExternalSystemUnavailableException(failure);
+      }
+      return response;
+    }
+  }
+
+  private final ExternalSystemRestClient delegate;
+  private final long ttlNanos;
+  private final long failureTtlNanos;
+  private final LongSupplier nanoClock;
+
+  private final AtomicReference<Verdict> cached = new AtomicReference<>();
+  private final AtomicReference<CompletableFuture<Verdict>> inFlight = new AtomicReference<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  public CachingExternalSystemRestClient(
+      ExternalSystemRestClient delegate, Duration ttl, Duration failureTtl) {
+    this(delegate, ttl, failureTtl, System::nanoTime);
+  }
+
+  CachingExternalSystemRestClient(
+      ExternalSystemRestClient delegate,
+      Duration ttl,
+      Duration failureTtl,
+      LongSupplier nanoClock) {
+    this.delegate = delegate;
+    this.ttlNanos = ttl.toNanos();
+    this.failureTtlNanos = failureTtl.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  @Override
+  public ExternalSystemResponse getExternalSystemResponse() {
+    Verdict verdict = fresh(cached.get());
+    if (verdict != null) {
+      hits.increment();
+      return verdict.unwrap();
+    }
+
+    CompletableFuture<Verdict> call = new CompletableFuture<>();
+    CompletableFuture<Verdict> existing = inFlight.compareAndExchange(null, call);
+    if (existing != null) {
+      coalesced.increment();
+      return existing.join().unwrap();
+    }
+
+    try {
+      verdict = fresh(cached.get());
+      if (verdict != null) {
+        hits.increment();
+      } else {
+        misses.increment();
+        verdict = load();
+        cached.set(verdict);
+      }
+      call.complete(verdict);
+      return verdict.unwrap();
+    } finally {
+      call.complete(new Verdict(null, "External system call failed", 0));
+      inFlight.set(null);
+    }
+  }
+
+  private Verdict fresh(Verdict verdict) {
+    return verdict != null && nanoClock.getAsLong() - verdict.expiresAt() < 0 ? verdict : null;
+  }
+
+  private Verdict load() {
+    try {
+      ExternalSystemResponse response = delegate.getExternalSystemResponse();
+      long ttl = response.getCode() == 200 ? ttlNanos : failureTtlNanos;
+      return new Verdict(response, null, nanoClock.getAsLong() + ttl);
+    } catch (ExternalSystemUnavailableException e) {
+      return new Verdict(null, e.getMessage(), nanoClock.getAsLong() + failureTtlNanos);
+    }
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getCoalesced() {
+    return coalesced.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    counter(registry, "hit", hits);
+    counter(registry, "miss", misses);
+    counter(registry, "coalesced", coalesced);
+  }
+
+  private static void counter(MeterRegistry registry, String result, LongAdder adder) {
+    FunctionCounter.builder("external.system.verdict.requests", adder, LongAdder::sum)
+        .description("External system verdict lookups by cache result")
+        .tag("result", result)
+        .register(registry);
+  }
+}
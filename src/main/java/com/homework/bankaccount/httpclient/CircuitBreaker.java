@@ -0,0 +1,73 @@
+package com.homework.bankaccount.httpclient;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row calls are
+ * rejected for {@code openDuration}; then a single probe call decides whether to close again.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN,
+  }
+
+  private final int failureThreshold;
+  private final Duration openDuration;
+  private final Clock clock;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private Instant openedAt;
+  private boolean probeInFlight;
+
+  public CircuitBreaker(int failureThreshold, Duration openDuration) {
+    this(failureThreshold, openDuration, Clock.systemUTC());
+  }
+
+  public CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+    this.failureThreshold = failureThreshold;
+    this.openDuration = openDuration;
+    this.clock = clock;
+  }
+
+  public synchronized boolean tryAcquirePermission() {
+    if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration))) {
+      state = State.HALF_OPEN;
+    }
+    return switch (state) {
+      case CLOSED -> true;
+      case OPEN -> false;
+      case HALF_OPEN -> {
+        if (probeInFlight) {
+          yield false;
+        }
+        probeInFlight = true;
+        yield true;
+      }
+    };
+  }
+
+  public synchronized void onSuccess() {
+    consecutiveFailures = 0;
+    probeInFlight = false;
+    state = State.CLOSED;
+  }
+
+  public synchronized void onFailure() {
+    probeInFlight = false;
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      state = State.OPEN;
+      openedAt = clock.instant();
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+}
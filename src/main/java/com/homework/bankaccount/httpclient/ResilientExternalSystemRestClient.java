@@ -0,0 +1,82 @@
+package com.homework.bankaccount.httpclient;
+
+import com.homework.bankaccount.exception.ExternalSystemUnavailableException;
+import com.homework.bankaccount.httpclient.response.ExternalSystemResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.Semaphore;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Guards the generated HTTP client with a concurrency bulkhead and a circuit breaker. Both reject
+ * immediately with {@link ExternalSystemUnavailableException} instead of queueing callers. Every
+ * attempt is timed as {@code external.system.calls}, tagged by outcome.
+ */
+@Slf4j
+public class ResilientExternalSystemRestClient implements ExternalSystemRestClient {
+
+  private final ExternalSystemRestClient delegate;
+  private final CircuitBreaker circuitBreaker;
+  private final Semaphore bulkhead;
+  private final MeterRegistry meterRegistry;
+
+  public ResilientExternalSystemRestClient(
+      ExternalSystemRestClient delegate,
+      CircuitBreaker circuitBreaker,
+      int maxConcurrentCalls,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.circuitBreaker = circuitBreaker;
+    this.bulkhead = new Semaphore(maxConcurrentCalls);
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public ExternalSystemResponse getExternalSystemResponse() {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    if (!bulkhead.tryAcquire()) {
+      record(sample, "bulkhead_rejected");
+      throw new ExternalSystemUnavailableException("Too many concurrent external system calls");
+    }
+    try {
+      if (!circuitBreaker.tryAcquirePermission()) {
+        record(sample, "circuit_open");
+        throw new ExternalSystemUnavailableException("External system circuit breaker is open");
+      }
+      return call(sample);
+    } finally {
+      bulkhead.release();
+    }
+  }
+
+  private ExternalSystemResponse call(Timer.Sample sample) {
+    ExternalSystemResponse response;
+    try {
+      response = delegate.getExternalSystemResponse();
+    } catch (RuntimeException e) {
+      record(sample, "failure");
+      circuitBreaker.onFailure();
+      log.warn("External System call failed: {}", e.getMessage());
+      throw new ExternalSystemUnavailableException("External system call failed");
+    }
+
+    if (response.getCode() == 200) {
+      record(sample, "success");
+      circuitBreaker.onSuccess();
+    } else {
+      record(sample, "rejected");
+      circuitBreaker.onFailure();
+      log.warn("External System response code: {}", response.getCode());
+    }
+    return response;
+  }
+
+  private void record(Timer.Sample sample, String outcome) {
+    sample.stop(
+        Timer.builder("external.system.calls")
+            .description("External system calls by outcome")
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry));
+  }
+}
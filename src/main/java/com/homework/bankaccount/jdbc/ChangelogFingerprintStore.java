@@ -0,0 +1,93 @@
+package com.homework.bankaccount.jdbc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Optional;
+import javax.sql.DataSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fingerprints of the Liquibase changelog files, stored in {@code changelog_fingerprint} after
+ * each successful migration. Runs before the application's transaction manager exists, so it
+ * manages its own transactions on the data source.
+ */
+public class ChangelogFingerprintStore {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  public ChangelogFingerprintStore(DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.transactionTemplate = new TransactionTemplate(new JdbcTransactionManager(dataSource));
+  }
+
+  /** SHA-256 over the contents of all files matching the pattern, in path order. */
+  public static String compute(String locationPattern) {
+    try {
+      Resource[] resources =
+          new PathMatchingResourcePatternResolver().getResources(locationPattern);
+      Arrays.sort(resources, Comparator.comparing(ChangelogFingerprintStore::path));
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      for (Resource resource : resources) {
+        try (InputStream in = resource.getInputStream()) {
+          digest.update(in.readAllBytes());
+        }
+      }
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read changelog files " + locationPattern, e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Empty if the changelog was never migrated with a fingerprint, or the table does not exist. */
+  public Optional<String> find(String changeLog) {
+    try {
+      return transactionTemplate.execute(
+          status ->
+              jdbcTemplate
+                  .queryForList(
+                      "SELECT fingerprint FROM changelog_fingerprint WHERE change_log = ?",
+                      String.class,
+                      changeLog)
+                  .stream()
+                  .findFirst());
+    } catch (DataAccessException e) {
+      return Optional.empty();
+    }
+  }
+
+  public void save(String changeLog, String fingerprint) {
+    transactionTemplate.executeWithoutResult(
+        status ->
+            jdbcTemplate.update(
+                """
+                INSERT INTO changelog_fingerprint (change_log, fingerprint, applied_at)
+                VALUES (?, ?, now())
+                ON CONFLICT (change_log)
+                DO UPDATE SET fingerprint = EXCLUDED.fingerprint, applied_at = EXCLUDED.applied_at
+                """,
+                changeLog,
+                fingerprint));
+  }
+
+  private static String path(Resource resource) {
+    try {
+      return resource.getURI().toString();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package com.homework.bankaccount.mapper;
 
 import com.homework.bankaccount.entities.BalanceEntity;
+import com.homework.bankaccount.repository.AccountBalanceView;
+import com.homework.bankaccount.repository.BalanceView;
 import com.homework.bankaccount.response.BalanceResponse;
 import org.springframework.stereotype.Component;
 
@@ -8,6 +10,16 @@ import org.springframework.stereotype.Component;
 public class BalanceMapper {
 
   public BalanceResponse toResponse(BalanceEntity balanceEntity) {
-    return new BalanceResponse(balanceEntity.getAmount(), balanceEntity.getCurrency());
+    return new BalanceResponse(
+        balanceEntity.getAmount().toBigDecimal(), balanceEntity.getCurrency());
+  }
+
+  public BalanceResponse toResponse(BalanceView balanceView) {
+    return new BalanceResponse(balanceView.amount().toBigDecimal(), balanceView.currency());
+  }
+
+  public BalanceResponse toResponse(AccountBalanceView accountBalanceView) {
+    return new BalanceResponse(
+        accountBalanceView.amount().toBigDecimal(), accountBalanceView.currency());
   }
 }
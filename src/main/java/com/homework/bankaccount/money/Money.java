@@ -0,0 +1,82 @@
+package com.homework.bankaccount.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable fixed-point amount held as a {@code long} number of ten-thousandths, the same scale
+ * as the {@code DECIMAL(19,4)} columns. Arithmetic is overflow-checked and throws {@link
+ * ArithmeticException} instead of wrapping. {@link BigDecimal} is only used to convert JSON and
+ * JDBC values.
+ */
+public record Money(long units) implements Comparable<Money> {
+
+  public static final int SCALE = 4;
+  public static final Money ZERO = new Money(0);
+
+  public static Money ofUnits(long units) {
+    return units == 0 ? ZERO : new Money(units);
+  }
+
+  /** Rounds {@code amount} half-up to four decimals. */
+  public static Money of(BigDecimal amount) {
+    return ofUnits(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+  }
+
+  public static Money parse(String amount) {
+    return of(new BigDecimal(amount));
+  }
+
+  public Money plus(Money other) {
+    return ofUnits(Math.addExact(units, other.units));
+  }
+
+  public Money minus(Money other) {
+    return ofUnits(Math.subtractExact(units, other.units));
+  }
+
+  public Money negate() {
+    return ofUnits(Math.negateExact(units));
+  }
+
+  public boolean isLessThan(Money other) {
+    return units < other.units;
+  }
+
+  /** Multiplies by {@code numerator / denominator}, rounding half-up to four decimals. */
+  public Money multiplyRatio(long numerator, long denominator) {
+    if (denominator <= 0) {
+      throw new IllegalArgumentException("Denominator must be positive: " + denominator);
+    }
+    long product;
+    try {
+      product = Math.multiplyExact(units, numerator);
+    } catch (ArithmeticException e) {
+      return ofUnits(
+          BigDecimal.valueOf(units)
+              .multiply(BigDecimal.valueOf(numerator))
+              .divide(BigDecimal.valueOf(denominator), 0, RoundingMode.HALF_UP)
+              .longValueExact());
+    }
+    long quotient = product / denominator;
+    long remainder = Math.abs(product % denominator);
+    if (remainder >= denominator - remainder) {
+      quotient += product < 0 ? -1 : 1;
+    }
+    return ofUnits(quotient);
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(units, SCALE);
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(units, other.units);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString();
+  }
+}
@@ -0,0 +1,21 @@
+package com.homework.bankaccount.outbox;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.LedgerEntryType;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A committed balance change. {@code position} orders all events without gaps and is stable
+ * across redeliveries; {@code seq} is the ledger sequence number of the balance.
+ */
+public record BalanceEvent(
+    long position,
+    Long bankAccountId,
+    Currency currency,
+    long seq,
+    BigDecimal amount,
+    BigDecimal balanceAfter,
+    LedgerEntryType entryType,
+    Long rateVersion,
+    Instant createdAt) {}
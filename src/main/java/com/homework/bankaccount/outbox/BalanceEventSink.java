@@ -0,0 +1,22 @@
+package com.homework.bankaccount.outbox;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/** Destination of the events relayed from the outbox, in position order. */
+public interface BalanceEventSink {
+
+  /**
+   * Stores the events durably before returning. If it throws, the same events are offered again
+   * on the next attempt.
+   */
+  void publish(List<BalanceEvent> events);
+
+  /**
+   * Position of the last event the sink has stored, if it keeps track of it. The relay resumes
+   * after it, so events delivered just before a crash are not delivered twice.
+   */
+  default OptionalLong lastPosition() {
+    return OptionalLong.empty();
+  }
+}
@@ -0,0 +1,71 @@
+package com.homework.bankaccount.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.OptionalLong;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Appends events to a file as NDJSON and forces them to disk before acknowledging. The position
+ * of the last line is read back on startup.
+ */
+public class FileBalanceEventSink implements BalanceEventSink {
+
+  private final Path file;
+  private final JsonMapper jsonMapper;
+  private OptionalLong lastPosition;
+
+  public FileBalanceEventSink(Path file, JsonMapper jsonMapper) {
+    this.file = file;
+    this.jsonMapper = jsonMapper;
+    this.lastPosition = readLastPosition();
+  }
+
+  @Override
+  public synchronized void publish(List<BalanceEvent> events) {
+    StringBuilder lines = new StringBuilder();
+    for (BalanceEvent event : events) {
+      lines.append(jsonMapper.writeValueAsString(event)).append('\n');
+    }
+    try (FileChannel channel =
+        FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+      ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not append balance events to " + file, e);
+    }
+    lastPosition = OptionalLong.of(events.getLast().position());
+  }
+
+  @Override
+  public synchronized OptionalLong lastPosition() {
+    return lastPosition;
+  }
+
+  private OptionalLong readLastPosition() {
+    if (!Files.exists(file)) {
+      return OptionalLong.empty();
+    }
+    try {
+      List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+      for (int i = lines.size() - 1; i >= 0; i--) {
+        if (!lines.get(i).isBlank()) {
+          return OptionalLong.of(jsonMapper.readTree(lines.get(i)).get("position").asLong());
+        }
+      }
+      return OptionalLong.empty();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read balance events from " + file, e);
+    }
+  }
+}
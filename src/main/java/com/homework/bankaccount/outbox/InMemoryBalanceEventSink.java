@@ -0,0 +1,25 @@
+package com.homework.bankaccount.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+/** Keeps every event in memory; meant for tests and local runs. */
+public class InMemoryBalanceEventSink implements BalanceEventSink {
+
+  private final List<BalanceEvent> events = new ArrayList<>();
+
+  @Override
+  public synchronized void publish(List<BalanceEvent> events) {
+    this.events.addAll(events);
+  }
+
+  @Override
+  public synchronized OptionalLong lastPosition() {
+    return events.isEmpty() ? OptionalLong.empty() : OptionalLong.of(events.getLast().position());
+  }
+
+  public synchronized List<BalanceEvent> getEvents() {
+    return List.copyOf(events);
+  }
+}
@@ -0,0 +1,15 @@
+package com.homework.bankaccount.outbox;
+
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class LoggingBalanceEventSink implements BalanceEventSink {
+
+  @Override
+  public void publish(List<BalanceEvent> events) {
+    if (log.isDebugEnabled()) {
+      events.forEach(event -> log.debug("Balance event {}", event));
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package com.homework.bankaccount.outbox;
+
+import com.homework.bankaccount.config.OutboxConfig;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.LedgerEntryType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.OptionalLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves balance events from the {@code balance_event} outbox to the {@link BalanceEventSink}.
+ * Events are written by a trigger on {@code ledger_entry}, so they commit or roll back with the
+ * balance change. The relay first gives committed events consecutive positions in id order, then
+ * publishes them in position order and records the last published position in {@code
+ * outbox_relay}. Only one instance should relay; see {@code bankaccount.outbox.enabled}.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+  static final String RELAY_NAME = "balance-events";
+
+  private static final RowMapper<BalanceEvent> EVENT_ROW_MAPPER =
+      (rs, rowNum) ->
+          new BalanceEvent(
+              rs.getLong("position"),
+              rs.getLong("bank_account_id"),
+              Currency.valueOf(rs.getString("currency")),
+              rs.getLong("seq"),
+              rs.getBigDecimal("amount"),
+              rs.getBigDecimal("balance_after"),
+              LedgerEntryType.valueOf(rs.getString("entry_type")),
+              rs.getObject("rate_version", Long.class),
+              rs.getTimestamp("created_at").toInstant());
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final BalanceEventSink sink;
+  private final OutboxConfig outboxConfig;
+  private final Counter published;
+
+  private boolean resumed;
+
+  public OutboxRelay(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      BalanceEventSink sink,
+      OutboxConfig outboxConfig,
+      MeterRegistry meterRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.sink = sink;
+    this.outboxConfig = outboxConfig;
+    this.published =
+        Counter.builder("bankaccount.outbox.published")
+            .description("Balance events delivered to the sink")
+            .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${bankaccount.outbox.poll-interval:200ms}")
+  public void poll() {
+    if (outboxConfig.isEnabled()) {
+      relay();
+    }
+  }
+
+  /** Publishes every committed event, batch by batch, and returns how many were published. */
+  public synchronized int relay() {
+    if (!resumed) {
+      resume();
+      resumed = true;
+    }
+    int total = 0;
+    int batchSize = outboxConfig.getBatchSize();
+    while (true) {
+      assignPositions(batchSize);
+      List<BalanceEvent> events = transactionTemplate.execute(status -> unpublished(batchSize));
+      if (events.isEmpty()) {
+        return total;
+      }
+      sink.publish(events);
+      acknowledge(events.getLast().position());
+      published.increment(events.size());
+      total += events.size();
+      if (events.size() < batchSize) {
+        return total;
+      }
+    }
+  }
+
+  /**
+   * Skips events the sink already stored but the relay did not get to acknowledge before it
+   * stopped.
+   */
+  private void resume() {
+    OptionalLong sinkPosition = sink.lastPosition();
+    if (sinkPosition.isPresent() && sinkPosition.getAsLong() > publishedPosition()) {
+      log.warn("Resuming balance events after position {} reported by the sink", sinkPosition);
+      acknowledge(sinkPosition.getAsLong());
+    }
+  }
+
+  /**
+   * Numbers up to {@code limit} committed events without a position. The relay row lock keeps
+   * positions gap-free even if two relays run at once.
+   */
+  private void assignPositions(int limit) {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          long assigned =
+              jdbcTemplate.queryForObject(
+                  "SELECT assigned_position FROM outbox_relay WHERE name = ? FOR UPDATE",
+                  Long.class,
+                  RELAY_NAME);
+          int numbered =
+              jdbcTemplate.update(
+                  """
+                  UPDATE balance_event e SET position = ? + s.rn
+                  FROM (
+                    SELECT id, row_number() OVER (ORDER BY id) AS rn
+                    FROM (
+                      SELECT id FROM balance_event WHERE position IS NULL ORDER BY id LIMIT ?
+                    ) u
+                  ) s
+                  WHERE e.id = s.id
+                  """,
+                  assigned,
+                  limit);
+          if (numbered > 0) {
+            jdbcTemplate.update(
+                "UPDATE outbox_relay SET assigned_position = ? WHERE name = ?",
+                assigned + numbered,
+                RELAY_NAME);
+          }
+        });
+  }
+
+  private List<BalanceEvent> unpublished(int limit) {
+    return jdbcTemplate.query(
+        """
+        SELECT * FROM balance_event
+        WHERE position > (SELECT published_position FROM outbox_relay WHERE name = ?)
+        ORDER BY position LIMIT ?
+        """,
+        EVENT_ROW_MAPPER,
+        RELAY_NAME,
+        limit);
+  }
+
+  private long publishedPosition() {
+    return transactionTemplate.execute(
+        status ->
+            jdbcTemplate.queryForObject(
+                "SELECT published_position FROM outbox_relay WHERE name = ?",
+                Long.class,
+                RELAY_NAME));
+  }
+
+  private void acknowledge(long position) {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          jdbcTemplate.update(
+              "UPDATE outbox_relay SET published_position = ? WHERE name = ?",
+              position,
+              RELAY_NAME);
+          jdbcTemplate.update("DELETE FROM balance_event WHERE position <= ?", position);
+        });
+  }
+}
@@ -0,0 +1,15 @@
+package com.homework.bankaccount.rates;
+
+import com.homework.bankaccount.enums.Currency;
+import java.math.BigDecimal;
+import java.util.Map;
+
+/** Source of exchange rates, polled by {@link ExchangeRateService}. */
+public interface ExchangeRateProvider {
+
+  /**
+   * Returns the value of one unit of every supported currency in EUR. Called from a single
+   * thread; may block.
+   */
+  Map<Currency, BigDecimal> loadRatesToEur();
+}
@@ -0,0 +1,96 @@
+package com.homework.bankaccount.rates;
+
+import com.homework.bankaccount.entities.ExchangeRateSnapshotEntity;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.repository.ExchangeRateSnapshotRepository;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Polls the {@link ExchangeRateProvider} and publishes the rates as an immutable {@link
+ * ExchangeRateSnapshot}. Readers get the current snapshot with a single volatile read. Every
+ * distinct set of rates is stored in {@code exchange_rate_snapshot}, whose id is the version
+ * recorded on exchange ledger entries. Snapshots are written in their own transaction, so a
+ * rolled back exchange cannot take the version it converted with down with it.
+ */
+@Slf4j
+@Service
+public class ExchangeRateService {
+
+  private final ExchangeRateProvider exchangeRateProvider;
+  private final ExchangeRateSnapshotRepository exchangeRateSnapshotRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final AtomicReference<ExchangeRateSnapshot> current = new AtomicReference<>();
+
+  public ExchangeRateService(
+      ExchangeRateProvider exchangeRateProvider,
+      ExchangeRateSnapshotRepository exchangeRateSnapshotRepository,
+      PlatformTransactionManager transactionManager) {
+    this.exchangeRateProvider = exchangeRateProvider;
+    this.exchangeRateSnapshotRepository = exchangeRateSnapshotRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(
+        TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  /** Loads the rates on startup; a failed load is retried by the next call or refresh. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadOnStartup() {
+    try {
+      load();
+    } catch (RuntimeException e) {
+      log.error("Could not load exchange rates on startup", e);
+    }
+  }
+
+  public ExchangeRateSnapshot current() {
+    ExchangeRateSnapshot snapshot = current.get();
+    return snapshot != null ? snapshot : load();
+  }
+
+  /** A failed refresh keeps serving the previous snapshot. */
+  @Scheduled(fixedDelayString = "${bankaccount.rates.refresh-interval:60s}")
+  public void refresh() {
+    load();
+  }
+
+  private synchronized ExchangeRateSnapshot load() {
+    Map<Currency, BigDecimal> rates = exchangeRateProvider.loadRatesToEur();
+    String encoded = ExchangeRateSnapshot.encode(rates);
+
+    ExchangeRateSnapshot previous = current.get();
+    if (previous != null && previous.encodedRates().equals(encoded)) {
+      return previous;
+    }
+
+    long version =
+        transactionTemplate.execute(
+            status ->
+                exchangeRateSnapshotRepository
+                    .findFirstByOrderByVersionDesc()
+                    .filter(latest -> latest.getRates().equals(encoded))
+                    .orElseGet(() -> save(encoded))
+                    .getVersion());
+    ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.of(version, rates);
+    current.set(snapshot);
+    log.info("Published exchange rates version {}: {}", version, encoded);
+    return snapshot;
+  }
+
+  private ExchangeRateSnapshotEntity save(String encoded) {
+    ExchangeRateSnapshotEntity entity = new ExchangeRateSnapshotEntity();
+    entity.setRates(encoded);
+    entity.setCreatedAt(Instant.now());
+    return exchangeRateSnapshotRepository.save(entity);
+  }
+}
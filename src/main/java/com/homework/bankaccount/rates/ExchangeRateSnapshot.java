@@ -0,0 +1,107 @@
+package com.homework.bankaccount.rates;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.money.Money;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Immutable set of rates published under one version. The cross rate of every currency pair is
+ * precomputed as an exact reduced fraction and stored in a matrix indexed by enum ordinal, so a
+ * conversion is two array reads and one {@link Money#multiplyRatio}.
+ */
+public final class ExchangeRateSnapshot {
+
+  private static final Currency[] CURRENCIES = Currency.values();
+
+  private final long version;
+  private final Map<Currency, BigDecimal> ratesToEur;
+  private final String encodedRates;
+  private final long[] numerators;
+  private final long[] denominators;
+
+  private ExchangeRateSnapshot(
+      long version,
+      Map<Currency, BigDecimal> ratesToEur,
+      String encodedRates,
+      long[] numerators,
+      long[] denominators) {
+    this.version = version;
+    this.ratesToEur = ratesToEur;
+    this.encodedRates = encodedRates;
+    this.numerators = numerators;
+    this.denominators = denominators;
+  }
+
+  /**
+   * @throws IllegalArgumentException when a currency has no rate or a non-positive rate
+   */
+  public static ExchangeRateSnapshot of(long version, Map<Currency, BigDecimal> ratesToEur) {
+    Map<Currency, BigDecimal> rates = normalize(ratesToEur);
+    int size = CURRENCIES.length;
+    long[] numerators = new long[size * size];
+    long[] denominators = new long[size * size];
+    for (Currency from : CURRENCIES) {
+      for (Currency to : CURRENCIES) {
+        int index = from.ordinal() * size + to.ordinal();
+        BigDecimal fromRate = rates.get(from);
+        BigDecimal toRate = rates.get(to);
+        // (f / 10^fs) / (t / 10^ts) = f * 10^ts / (t * 10^fs)
+        BigInteger numerator = fromRate.unscaledValue();
+        BigInteger denominator = toRate.unscaledValue();
+        int shift = toRate.scale() - fromRate.scale();
+        if (shift > 0) {
+          numerator = numerator.multiply(BigInteger.TEN.pow(shift));
+        } else {
+          denominator = denominator.multiply(BigInteger.TEN.pow(-shift));
+        }
+        BigInteger gcd = numerator.gcd(denominator);
+        numerators[index] = numerator.divide(gcd).longValueExact();
+        denominators[index] = denominator.divide(gcd).longValueExact();
+      }
+    }
+    return new ExchangeRateSnapshot(
+        version, Collections.unmodifiableMap(rates), encode(rates), numerators, denominators);
+  }
+
+  /** Canonical text form of {@code ratesToEur}, used to detect and persist changed rates. */
+  public static String encode(Map<Currency, BigDecimal> ratesToEur) {
+    StringJoiner joiner = new StringJoiner(";");
+    normalize(ratesToEur)
+        .forEach((currency, rate) -> joiner.add(currency.name() + "=" + rate.toPlainString()));
+    return joiner.toString();
+  }
+
+  private static Map<Currency, BigDecimal> normalize(Map<Currency, BigDecimal> ratesToEur) {
+    Map<Currency, BigDecimal> rates = new EnumMap<>(Currency.class);
+    for (Currency currency : CURRENCIES) {
+      BigDecimal rate = ratesToEur.get(currency);
+      if (rate == null || rate.signum() <= 0) {
+        throw new IllegalArgumentException("Missing or non-positive rate for " + currency);
+      }
+      rates.put(currency, rate.stripTrailingZeros());
+    }
+    return rates;
+  }
+
+  public Money convert(Money amount, Currency from, Currency to) {
+    int index = from.ordinal() * CURRENCIES.length + to.ordinal();
+    return amount.multiplyRatio(numerators[index], denominators[index]);
+  }
+
+  public long version() {
+    return version;
+  }
+
+  public Map<Currency, BigDecimal> ratesToEur() {
+    return ratesToEur;
+  }
+
+  public String encodedRates() {
+    return encodedRates;
+  }
+}
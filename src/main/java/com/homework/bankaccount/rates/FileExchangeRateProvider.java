@@ -0,0 +1,40 @@
+package com.homework.bankaccount.rates;
+
+import com.homework.bankaccount.enums.Currency;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/** Reads rates from a properties file, e.g. {@code USD=0.85}, re-read on every refresh. */
+public class FileExchangeRateProvider implements ExchangeRateProvider {
+
+  private final Path file;
+
+  public FileExchangeRateProvider(Path file) {
+    this.file = file;
+  }
+
+  @Override
+  public Map<Currency, BigDecimal> loadRatesToEur() {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(file)) {
+      properties.load(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read exchange rates from " + file, e);
+    }
+
+    Map<Currency, BigDecimal> rates = new EnumMap<>(Currency.class);
+    properties.forEach(
+        (currency, rate) ->
+            rates.put(
+                Currency.valueOf(currency.toString().trim()),
+                new BigDecimal(rate.toString().trim())));
+    return rates;
+  }
+}
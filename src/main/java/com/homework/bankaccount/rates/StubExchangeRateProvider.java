@@ -0,0 +1,21 @@
+package com.homework.bankaccount.rates;
+
+import com.homework.bankaccount.enums.Currency;
+import java.math.BigDecimal;
+import java.util.Map;
+
+/** Fixed rates for local runs and tests. */
+public class StubExchangeRateProvider implements ExchangeRateProvider {
+
+  private static final Map<Currency, BigDecimal> RATES_TO_EUR =
+      Map.of(
+          Currency.EUR, BigDecimal.ONE,
+          Currency.USD, new BigDecimal("0.85"),
+          Currency.SEK, new BigDecimal("0.094"),
+          Currency.GBP, new BigDecimal("1.15"));
+
+  @Override
+  public Map<Currency, BigDecimal> loadRatesToEur() {
+    return RATES_TO_EUR;
+  }
+}
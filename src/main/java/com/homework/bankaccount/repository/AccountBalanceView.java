@@ -0,0 +1,7 @@
+package com.homework.bankaccount.repository;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.money.Money;
+
+/** Like {@link BalanceView}, for a query spanning several accounts. */
+public record AccountBalanceView(Long bankAccountId, Money amount, Currency currency) {}
@@ -0,0 +1,40 @@
+package com.homework.bankaccount.repository;
+
+import com.homework.bankaccount.entities.BalanceHoldEntity;
+import com.homework.bankaccount.enums.HoldStatus;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BalanceHoldRepository extends JpaRepository<BalanceHoldEntity, Long> {
+
+  /** Moves a hold out of {@code fromStatus}; returns 0 when another caller got there first. */
+  @Modifying
+  @Query(
+      "UPDATE BalanceHoldEntity h SET h.status = :toStatus"
+          + " WHERE h.id = :id AND h.status = :fromStatus")
+  int transition(
+      @Param("id") Long id,
+      @Param("fromStatus") HoldStatus fromStatus,
+      @Param("toStatus") HoldStatus toStatus);
+
+  /** Like {@link #transition}, but also returns 0 once the hold expired, swept or not. */
+  @Modifying
+  @Query(
+      "UPDATE BalanceHoldEntity h SET h.status = :toStatus"
+          + " WHERE h.id = :id AND h.status = :fromStatus AND h.expiresAt > :now")
+  int transitionUnexpired(
+      @Param("id") Long id,
+      @Param("fromStatus") HoldStatus fromStatus,
+      @Param("toStatus") HoldStatus toStatus,
+      @Param("now") Instant now);
+
+  List<BalanceHoldEntity> findByStatusAndExpiresAtBeforeOrderByExpiresAt(
+      HoldStatus status, Instant expiresAt, Limit limit);
+}
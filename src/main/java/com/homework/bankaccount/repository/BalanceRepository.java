@@ -1,8 +1,147 @@
 package com.homework.bankaccount.repository;
 
 import com.homework.bankaccount.entities.BalanceEntity;
+import com.homework.bankaccount.enums.Currency;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface BalanceRepository extends JpaRepository<BalanceEntity, Long> {}
+public interface BalanceRepository extends JpaRepository<BalanceEntity, Long> {
+
+  String TRANSFER_BALANCES =
+      "SELECT b FROM BalanceEntity b"
+          + " WHERE (b.bankAccount.id = :fromAccountId AND b.currency = :fromCurrency)"
+          + " OR (b.bankAccount.id = :toAccountId AND b.currency = :toCurrency)"
+          + " ORDER BY b.id";
+
+  /**
+   * Adds {@code amountUnits} ten-thousandths to the balance in a single statement, creating the
+   * balance row on the first deposit in that currency, and appends the matching ledger entry.
+   *
+   * @return the balance after the deposit, in ten-thousandths
+   */
+  @Transactional(Transactional.TxType.MANDATORY)
+  @Query(
+      value =
+          """
+          WITH changed AS (
+              INSERT INTO balance (bank_account_id, currency, amount, ledger_seq)
+              VALUES (:bankAccountId, :currency, :amountUnits * 0.0001, 1)
+              ON CONFLICT (bank_account_id, currency)
+              DO UPDATE SET amount = balance.amount + EXCLUDED.amount,
+                            ledger_seq = balance.ledger_seq + 1,
+                            version = balance.version + 1
+              RETURNING bank_account_id, currency, amount, ledger_seq)
+          INSERT INTO ledger_entry
+              (bank_account_id, currency, seq, amount, balance_after, entry_type)
+          SELECT bank_account_id, currency, ledger_seq, :amountUnits * 0.0001, amount, :entryType
+          FROM changed
+          RETURNING CAST(balance_after * 10000 AS bigint)
+          """,
+      nativeQuery = true)
+  long deposit(
+      @Param("bankAccountId") Long bankAccountId,
+      @Param("currency") String currency,
+      @Param("amountUnits") long amountUnits,
+      @Param("entryType") String entryType);
+
+  /**
+   * Subtracts {@code amountUnits} ten-thousandths from the balance only if enough funds are
+   * available, and appends the matching ledger entry.
+   *
+   * @return the balance after the debit in ten-thousandths, or empty when no row was updated
+   */
+  @Transactional(Transactional.TxType.MANDATORY)
+  @Query(
+      value =
+          """
+          WITH changed AS (
+              UPDATE balance
+              SET amount = amount - :amountUnits * 0.0001, ledger_seq = ledger_seq + 1,
+                  version = version + 1
+              WHERE bank_account_id = :bankAccountId AND currency = :currency
+                AND amount >= :amountUnits * 0.0001
+              RETURNING bank_account_id, currency, amount, ledger_seq)
+          INSERT INTO ledger_entry
+              (bank_account_id, currency, seq, amount, balance_after, entry_type)
+          SELECT bank_account_id, currency, ledger_seq, -:amountUnits * 0.0001, amount, 'DEBIT'
+          FROM changed
+          RETURNING CAST(balance_after * 10000 AS bigint)
+          """,
+      nativeQuery = true)
+  Optional<Long> debit(
+      @Param("bankAccountId") Long bankAccountId,
+      @Param("currency") String currency,
+      @Param("amountUnits") long amountUnits);
+
+  /**
+   * Projects the balances of an account in one query without loading entities. Returns no rows
+   * for a missing account and a single all-{@code null} row for an account without balances.
+   */
+  @Query(
+      "SELECT new com.homework.bankaccount.repository.BalanceView("
+          + "b.amount, b.currency, b.ledgerSeq)"
+          + " FROM BankAccountEntity a LEFT JOIN a.balances b"
+          + " WHERE a.id = :bankAccountId ORDER BY b.id")
+  List<BalanceView> findBalanceViews(@Param("bankAccountId") Long bankAccountId);
+
+  /**
+   * Projects the balances of several accounts in one query, ordered by account. Missing accounts
+   * return no rows, accounts without balances a single row with {@code null} amount and currency.
+   */
+  @Query(
+      "SELECT new com.homework.bankaccount.repository.AccountBalanceView("
+          + "a.id, b.amount, b.currency)"
+          + " FROM BankAccountEntity a LEFT JOIN a.balances b"
+          + " WHERE a.id IN :bankAccountIds ORDER BY a.id, b.id")
+  List<AccountBalanceView> findAccountBalanceViews(
+      @Param("bankAccountIds") Collection<Long> bankAccountIds);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT b FROM BalanceEntity b WHERE b.bankAccount.id IN :bankAccountIds ORDER BY b.id")
+  List<BalanceEntity> findAllForUpdate(@Param("bankAccountIds") Collection<Long> bankAccountIds);
+
+  @Query("SELECT b FROM BalanceEntity b WHERE b.bankAccount.id IN :bankAccountIds ORDER BY b.id")
+  List<BalanceEntity> findAllByAccounts(@Param("bankAccountIds") Collection<Long> bankAccountIds);
+
+  /** Locks both balances of a transfer in ascending id order, so opposing transfers queue. */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(TRANSFER_BALANCES)
+  List<BalanceEntity> findTransferBalancesForUpdate(
+      @Param("fromAccountId") Long fromAccountId,
+      @Param("fromCurrency") Currency fromCurrency,
+      @Param("toAccountId") Long toAccountId,
+      @Param("toCurrency") Currency toCurrency);
+
+  @Query(TRANSFER_BALANCES)
+  List<BalanceEntity> findTransferBalances(
+      @Param("fromAccountId") Long fromAccountId,
+      @Param("fromCurrency") Currency fromCurrency,
+      @Param("toAccountId") Long toAccountId,
+      @Param("toCurrency") Currency toCurrency);
+
+  /** Creates an empty balance unless the account already holds the currency. */
+  @Transactional(Transactional.TxType.MANDATORY)
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO balance (bank_account_id, currency, amount, ledger_seq)
+          VALUES (:bankAccountId, :currency, 0, 0)
+          ON CONFLICT (bank_account_id, currency) DO NOTHING
+          """,
+      nativeQuery = true)
+  int createIfMissing(
+      @Param("bankAccountId") Long bankAccountId, @Param("currency") String currency);
+
+  boolean existsByBankAccountIdAndCurrency(Long bankAccountId, Currency currency);
+}
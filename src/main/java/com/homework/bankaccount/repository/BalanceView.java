@@ -0,0 +1,7 @@
+package com.homework.bankaccount.repository;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.money.Money;
+
+/** Read-only projection of a balance row; all fields are {@code null} for an empty account. */
+public record BalanceView(Money amount, Currency currency, Long ledgerSeq) {}
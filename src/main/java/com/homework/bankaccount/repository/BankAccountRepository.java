@@ -1,8 +1,24 @@
 package com.homework.bankaccount.repository;
 
 import com.homework.bankaccount.entities.BankAccountEntity;
+import com.homework.bankaccount.response.AccountResponse;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface BankAccountRepository extends JpaRepository<BankAccountEntity, Long> {}
+public interface BankAccountRepository extends JpaRepository<BankAccountEntity, Long> {
+
+  @Query("SELECT a.id FROM BankAccountEntity a WHERE a.id IN :ids")
+  List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+  /** Keyset page: seeks past {@code afterId} on the primary key instead of skipping rows. */
+  @Query(
+      "SELECT new com.homework.bankaccount.response.AccountResponse(a.id, a.name)"
+          + " FROM BankAccountEntity a WHERE a.id > :afterId ORDER BY a.id")
+  List<AccountResponse> findPageAfter(@Param("afterId") long afterId, Limit limit);
+}
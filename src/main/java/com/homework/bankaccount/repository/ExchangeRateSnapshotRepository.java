@@ -0,0 +1,13 @@
+package com.homework.bankaccount.repository;
+
+import com.homework.bankaccount.entities.ExchangeRateSnapshotEntity;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExchangeRateSnapshotRepository
+    extends JpaRepository<ExchangeRateSnapshotEntity, Long> {
+
+  Optional<ExchangeRateSnapshotEntity> findFirstByOrderByVersionDesc();
+}
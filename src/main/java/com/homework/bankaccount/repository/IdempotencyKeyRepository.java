@@ -0,0 +1,61 @@
+package com.homework.bankaccount.repository;
+
+import com.homework.bankaccount.entities.IdempotencyKeyEntity;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, String> {
+
+  /**
+   * Inserts the key, or takes over an expired one. Waits for a concurrent transaction that
+   * inserted the same key to finish.
+   *
+   * @return 1 when the key was claimed, 0 when it is already in use
+   */
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO idempotency_key (idempotency_key, request, completed, expires_at)
+          VALUES (:key, :request, false, :expiresAt)
+          ON CONFLICT (idempotency_key) DO UPDATE
+          SET request = EXCLUDED.request, completed = false, result_balance = NULL,
+              expires_at = EXCLUDED.expires_at
+          WHERE idempotency_key.expires_at < now()
+          """,
+      nativeQuery = true)
+  int claim(
+      @Param("key") String key,
+      @Param("request") String request,
+      @Param("expiresAt") Instant expiresAt);
+
+  @Modifying
+  @Query(
+      value =
+          """
+          UPDATE idempotency_key
+          SET completed = true, result_balance = CAST(:resultUnits AS bigint) * 0.0001,
+              expires_at = :expiresAt
+          WHERE idempotency_key = :key
+          """,
+      nativeQuery = true)
+  int complete(
+      @Param("key") String key,
+      @Param("resultUnits") Long resultUnits,
+      @Param("expiresAt") Instant expiresAt);
+
+  @Modifying
+  @Query(
+      "DELETE FROM IdempotencyKeyEntity k"
+          + " WHERE k.idempotencyKey = :key AND k.completed = false")
+  int abandon(@Param("key") String key);
+
+  @Modifying
+  @Query("DELETE FROM IdempotencyKeyEntity k WHERE k.expiresAt < :now")
+  int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,45 @@
+package com.homework.bankaccount.repository;
+
+import com.homework.bankaccount.entities.LedgerEntryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntryEntity, Long> {
+
+  /** Snapshots every balance that moved since its latest snapshot. */
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO balance_snapshot (bank_account_id, currency, seq, amount, created_at)
+          SELECT b.bank_account_id, b.currency, b.ledger_seq, b.amount, now()
+          FROM balance b
+          WHERE b.ledger_seq > COALESCE(
+              (SELECT max(s.seq) FROM balance_snapshot s
+               WHERE s.bank_account_id = b.bank_account_id AND s.currency = b.currency), 0)
+          """,
+      nativeQuery = true)
+  int snapshotChangedBalances();
+
+  /** Latest snapshot plus the ledger entries appended after it, in ten-thousandths. */
+  @Query(
+      value =
+          """
+          SELECT CAST((COALESCE(s.amount, 0) + COALESCE(
+              (SELECT sum(l.amount) FROM ledger_entry l
+               WHERE l.bank_account_id = :bankAccountId AND l.currency = :currency
+                 AND l.seq > COALESCE(s.seq, 0)), 0)) * 10000 AS bigint)
+          FROM (SELECT 1) AS one
+          LEFT JOIN LATERAL (
+              SELECT seq, amount FROM balance_snapshot
+              WHERE bank_account_id = :bankAccountId AND currency = :currency
+              ORDER BY seq DESC LIMIT 1) s ON true
+          """,
+      nativeQuery = true)
+  long computeBalance(
+      @Param("bankAccountId") Long bankAccountId, @Param("currency") String currency);
+}
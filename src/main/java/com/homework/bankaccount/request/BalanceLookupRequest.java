@@ -0,0 +1,8 @@
+package com.homework.bankaccount.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BalanceLookupRequest(@NotEmpty @Size(max = 1000) List<@NotNull Long> ids) {}
@@ -0,0 +1,13 @@
+package com.homework.bankaccount.request;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.TransactionType;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+public record BatchTransactionItem(
+    @NotNull Long accountId,
+    @NotNull TransactionType type,
+    @NotNull @DecimalMin("0.01") BigDecimal amount,
+    @NotNull Currency currency) {}
@@ -0,0 +1,12 @@
+package com.homework.bankaccount.request;
+
+import com.homework.bankaccount.enums.BatchMode;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BatchTransactionRequest(
+    @NotNull BatchMode mode,
+    @NotEmpty @Size(max = 10_000) List<@Valid BatchTransactionItem> items) {}
@@ -0,0 +1,9 @@
+package com.homework.bankaccount.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BulkCreateAccountsRequest(
+    @NotEmpty @Size(max = 10_000) List<@Valid NewAccount> accounts) {}
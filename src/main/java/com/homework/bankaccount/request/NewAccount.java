@@ -0,0 +1,8 @@
+package com.homework.bankaccount.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import java.util.List;
+
+/** {@code openingBalances} is optional and may hold each currency at most once. */
+public record NewAccount(@NotBlank String name, List<@Valid MoneyRequest> openingBalances) {}
@@ -0,0 +1,19 @@
+package com.homework.bankaccount.request;
+
+import com.homework.bankaccount.enums.Currency;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+/** {@code amount} is in {@code currency}; {@code toCurrency} defaults to {@code currency}. */
+public record TransferRequest(
+    @NotNull Long fromAccountId,
+    @NotNull Long toAccountId,
+    @NotNull @DecimalMin("0.01") BigDecimal amount,
+    @NotNull Currency currency,
+    Currency toCurrency) {
+
+  public Currency targetCurrency() {
+    return toCurrency == null ? currency : toCurrency;
+  }
+}
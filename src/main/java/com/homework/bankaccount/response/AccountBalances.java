@@ -0,0 +1,14 @@
+package com.homework.bankaccount.response;
+
+import java.util.List;
+
+/**
+ * Balances of one account with its version, the sum of the ledger sequences of its balances,
+ * which grows with every balance change and is used as the ETag of {@code GET /{id}}.
+ */
+public record AccountBalances(long version, List<BalanceResponse> balances) {
+
+  public String eTag() {
+    return "\"" + version + "\"";
+  }
+}
@@ -0,0 +1,6 @@
+package com.homework.bankaccount.response;
+
+import java.util.List;
+
+/** A page of accounts ordered by id; {@code nextAfterId} is {@code null} on the last page. */
+public record AccountPage(List<AccountResponse> accounts, Long nextAfterId) {}
@@ -0,0 +1,3 @@
+package com.homework.bankaccount.response;
+
+public record AccountResponse(Long id, String name) {}
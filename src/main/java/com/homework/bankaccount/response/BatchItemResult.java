@@ -0,0 +1,7 @@
+package com.homework.bankaccount.response;
+
+import com.homework.bankaccount.enums.BatchItemStatus;
+import java.math.BigDecimal;
+
+public record BatchItemResult(
+    int index, BatchItemStatus status, BigDecimal balance, String error) {}
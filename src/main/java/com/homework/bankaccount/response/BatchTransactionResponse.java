@@ -0,0 +1,5 @@
+package com.homework.bankaccount.response;
+
+import java.util.List;
+
+public record BatchTransactionResponse(List<BatchItemResult> results) {}
@@ -0,0 +1,6 @@
+package com.homework.bankaccount.response;
+
+import java.util.List;
+
+/** Ids of the created accounts, in request order. */
+public record BulkCreateAccountsResponse(List<Long> ids) {}
@@ -0,0 +1,7 @@
+package com.homework.bankaccount.response;
+
+import com.homework.bankaccount.enums.OperationStatus;
+import java.math.BigDecimal;
+
+public record OperationResponse(
+    String id, OperationStatus status, BigDecimal balance, String error) {}
@@ -0,0 +1,7 @@
+package com.homework.bankaccount.response;
+
+import java.math.BigDecimal;
+
+/** Balances of both accounts after the transfer and the amount credited in the target currency. */
+public record TransferResponse(
+    BigDecimal fromBalance, BigDecimal toBalance, BigDecimal creditedAmount) {}
@@ -0,0 +1,212 @@
+package com.homework.bankaccount.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.homework.bankaccount.config.AsyncDebitConfig;
+import com.homework.bankaccount.engine.ShardedBalanceEngine;
+import com.homework.bankaccount.enums.BatchItemStatus;
+import com.homework.bankaccount.enums.BatchMode;
+import com.homework.bankaccount.enums.OperationStatus;
+import com.homework.bankaccount.enums.TransactionType;
+import com.homework.bankaccount.exception.BadRequestException;
+import com.homework.bankaccount.exception.NotFoundException;
+import com.homework.bankaccount.exception.TooManyRequestsException;
+import com.homework.bankaccount.request.BatchTransactionItem;
+import com.homework.bankaccount.request.BatchTransactionRequest;
+import com.homework.bankaccount.request.MoneyRequest;
+import com.homework.bankaccount.response.BatchItemResult;
+import com.homework.bankaccount.response.OperationResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+/**
+ * Accepts debits into a bounded queue and settles them in batches on a single worker: each batch
+ * makes one external authorization and one transaction through {@link
+ * BankAccountService#processBatch}. Operation statuses are kept in memory for {@code
+ * operation-retention}; debits still queued when the process dies are lost.
+ */
+@Slf4j
+@Service
+public class AsyncDebitService implements SmartLifecycle, MeterBinder {
+
+  private record PendingDebit(String operationId, Long bankAccountId, MoneyRequest request) {}
+
+  private final BankAccountService bankAccountService;
+  private final ShardedBalanceEngine shardedBalanceEngine;
+  private final AsyncDebitConfig asyncDebitConfig;
+  private final BlockingQueue<PendingDebit> queue;
+  private final Cache<String, OperationResponse> operations;
+
+  private volatile Thread worker;
+  private volatile boolean running;
+
+  public AsyncDebitService(
+      BankAccountService bankAccountService,
+      ShardedBalanceEngine shardedBalanceEngine,
+      AsyncDebitConfig asyncDebitConfig) {
+    this.bankAccountService = bankAccountService;
+    this.shardedBalanceEngine = shardedBalanceEngine;
+    this.asyncDebitConfig = asyncDebitConfig;
+    this.queue = new ArrayBlockingQueue<>(asyncDebitConfig.getQueueCapacity());
+    this.operations =
+        Caffeine.newBuilder()
+            .maximumSize(asyncDebitConfig.getMaxOperations())
+            .expireAfterWrite(asyncDebitConfig.getOperationRetention())
+            .build();
+  }
+
+  /** Queues the debit, or rejects it immediately when the queue is full. */
+  public OperationResponse submit(Long bankAccountId, MoneyRequest request) {
+    if (shardedBalanceEngine.isEnabled()) {
+      throw new BadRequestException("Asynchronous debits are not supported by the sharded engine");
+    }
+    if (!running) {
+      throw new IllegalStateException("Asynchronous debit pipeline is not running");
+    }
+    String operationId = UUID.randomUUID().toString();
+    OperationResponse pending =
+        new OperationResponse(operationId, OperationStatus.PENDING, null, null);
+    operations.put(operationId, pending);
+    if (!queue.offer(new PendingDebit(operationId, bankAccountId, request))) {
+      operations.invalidate(operationId);
+      throw new TooManyRequestsException("Debit queue is full", asyncDebitConfig.getRetryAfter());
+    }
+    return pending;
+  }
+
+  public OperationResponse getOperation(String operationId) {
+    OperationResponse operation = operations.getIfPresent(operationId);
+    if (operation == null) {
+      throw new NotFoundException("Operation not found: " + operationId);
+    }
+    return operation;
+  }
+
+  private void run() {
+    List<PendingDebit> batch = new ArrayList<>(asyncDebitConfig.getMaxBatchSize());
+    while (running || !queue.isEmpty()) {
+      try {
+        collect(batch);
+      } catch (InterruptedException e) {
+        // Not interrupted by stop(); settle whatever was collected.
+      }
+      if (!batch.isEmpty()) {
+        settle(batch);
+        batch.clear();
+      }
+    }
+  }
+
+  /** Waits for a first debit, then up to {@code linger} for the batch to fill. */
+  private void collect(List<PendingDebit> batch) throws InterruptedException {
+    int maxBatchSize = asyncDebitConfig.getMaxBatchSize();
+    PendingDebit first = queue.poll(100, TimeUnit.MILLISECONDS);
+    if (first == null) {
+      return;
+    }
+    batch.add(first);
+    long deadline = System.nanoTime() + asyncDebitConfig.getLinger().toNanos();
+    while (batch.size() < maxBatchSize) {
+      queue.drainTo(batch, maxBatchSize - batch.size());
+      long remaining = deadline - System.nanoTime();
+      if (batch.size() >= maxBatchSize || remaining <= 0) {
+        return;
+      }
+      PendingDebit next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        return;
+      }
+      batch.add(next);
+    }
+  }
+
+  private void settle(List<PendingDebit> batch) {
+    List<BatchTransactionItem> items =
+        batch.stream()
+            .map(
+                debit ->
+                    new BatchTransactionItem(
+                        debit.bankAccountId(),
+                        TransactionType.DEBIT,
+                        debit.request().amount(),
+                        debit.request().currency()))
+            .toList();
+    List<BatchItemResult> results;
+    try {
+      results =
+          bankAccountService
+              .processBatch(new BatchTransactionRequest(BatchMode.BEST_EFFORT, items))
+              .results();
+    } catch (RuntimeException e) {
+      log.error("Asynchronous debit batch of {} failed", batch.size(), e);
+      for (PendingDebit debit : batch) {
+        complete(debit, OperationStatus.FAILED, null, "Internal server error");
+      }
+      return;
+    }
+    for (BatchItemResult result : results) {
+      PendingDebit debit = batch.get(result.index());
+      if (result.status() == BatchItemStatus.APPLIED) {
+        complete(debit, OperationStatus.COMPLETED, result, null);
+      } else {
+        complete(debit, OperationStatus.REJECTED, null, result.error());
+      }
+    }
+  }
+
+  private void complete(
+      PendingDebit debit, OperationStatus status, BatchItemResult result, String error) {
+    operations.put(
+        debit.operationId(),
+        new OperationResponse(
+            debit.operationId(), status, result == null ? null : result.balance(), error));
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    worker = Thread.ofPlatform().name("async-debit").daemon().start(this::run);
+  }
+
+  /** Settles the debits still queued before returning. */
+  @Override
+  public void stop() {
+    running = false;
+    try {
+      worker.join(TimeUnit.SECONDS.toMillis(30));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (!queue.isEmpty()) {
+      log.error("Asynchronous debit pipeline stopped with {} queued debits", queue.size());
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /** Stops after the web server, so no accepted debit is left unprocessed. */
+  @Override
+  public int getPhase() {
+    return SmartLifecycle.DEFAULT_PHASE - 3072;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("bankaccount.async.debit.queue", queue, BlockingQueue::size)
+        .description("Debits waiting to be settled")
+        .register(registry);
+  }
+}
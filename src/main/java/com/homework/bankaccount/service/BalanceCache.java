@@ -0,0 +1,77 @@
+package com.homework.bankaccount.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.homework.bankaccount.config.BalanceCacheConfig;
+import com.homework.bankaccount.response.AccountBalances;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through cache of account balances. Writers evict the account after their transaction
+ * commits, so the cache never holds uncommitted state. Caffeine loads a key atomically, so an
+ * eviction waits for a load in flight and removes its result rather than being overwritten by it.
+ * Each eviction is also published as a {@link BalancesChangedEvent}.
+ */
+@Component
+public class BalanceCache implements MeterBinder {
+
+  private final Cache<Long, AccountBalances> cache;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public BalanceCache(
+      BalanceCacheConfig balanceCacheConfig, ApplicationEventPublisher eventPublisher) {
+    this.eventPublisher = eventPublisher;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(balanceCacheConfig.getMaximumSize())
+            .expireAfterWrite(balanceCacheConfig.getTtl())
+            .recordStats()
+            .build();
+  }
+
+  public AccountBalances get(Long bankAccountId, Function<Long, AccountBalances> loader) {
+    return cache.get(bankAccountId, loader);
+  }
+
+  public void evictAfterCommit(Long bankAccountId) {
+    evictAfterCommit(List.of(bankAccountId));
+  }
+
+  /** Evicts when the current transaction commits, or right away outside a transaction. */
+  public void evictAfterCommit(Collection<Long> bankAccountIds) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      evict(bankAccountIds);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            evict(bankAccountIds);
+          }
+        });
+  }
+
+  private void evict(Collection<Long> bankAccountIds) {
+    cache.invalidateAll(bankAccountIds);
+    eventPublisher.publishEvent(new BalancesChangedEvent(bankAccountIds));
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, cache, "balances");
+    Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+        .tag("cache", "balances")
+        .register(registry);
+  }
+}
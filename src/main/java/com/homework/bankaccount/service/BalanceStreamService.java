@@ -0,0 +1,199 @@
+package com.homework.bankaccount.service;
+
+import com.homework.bankaccount.config.BalanceStreamConfig;
+import com.homework.bankaccount.engine.ShardedBalanceEngine;
+import com.homework.bankaccount.exception.BadRequestException;
+import com.homework.bankaccount.exception.NotFoundException;
+import com.homework.bankaccount.exception.TooManyRequestsException;
+import com.homework.bankaccount.response.AccountBalances;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes account balances to Server-Sent Events subscribers. Committed changes only mark the
+ * account; every {@code push-interval} each marked account with subscribers is loaded once and
+ * offered to all of them, so a burst of changes becomes one push. Subscriptions hold no thread
+ * while idle, and a subscriber that reads slowly keeps only the latest balances waiting, on a
+ * virtual thread blocked in its write.
+ */
+@Slf4j
+@Service
+public class BalanceStreamService implements MeterBinder {
+
+  private final BankAccountService bankAccountService;
+  private final ShardedBalanceEngine shardedBalanceEngine;
+  private final BalanceStreamConfig balanceStreamConfig;
+  private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+  private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger subscriptionCount = new AtomicInteger();
+  private final Executor sender = Executors.newVirtualThreadPerTaskExecutor();
+
+  public BalanceStreamService(
+      BankAccountService bankAccountService,
+      ShardedBalanceEngine shardedBalanceEngine,
+      BalanceStreamConfig balanceStreamConfig) {
+    this.bankAccountService = bankAccountService;
+    this.shardedBalanceEngine = shardedBalanceEngine;
+    this.balanceStreamConfig = balanceStreamConfig;
+  }
+
+  /** Subscribes to the balances of the account, starting with the current ones. */
+  public SseEmitter subscribe(Long bankAccountId) {
+    if (shardedBalanceEngine.isEnabled()) {
+      throw new BadRequestException("Balance streams are not supported by the sharded engine");
+    }
+    if (subscriptionCount.incrementAndGet() > balanceStreamConfig.getMaxSubscriptions()) {
+      subscriptionCount.decrementAndGet();
+      throw new TooManyRequestsException(
+          "Too many balance subscriptions", balanceStreamConfig.getRetryAfter());
+    }
+    SseEmitter emitter = new SseEmitter(balanceStreamConfig.getTimeout().toMillis());
+    Subscription subscription = new Subscription(bankAccountId, emitter);
+    emitter.onCompletion(subscription::close);
+    emitter.onTimeout(emitter::complete);
+    emitter.onError(e -> subscription.close());
+    subscriptions.compute(
+        bankAccountId,
+        (id, subscribers) -> {
+          Set<Subscription> updated =
+              subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+          updated.add(subscription);
+          return updated;
+        });
+    // Loaded after registering, so a change committed meanwhile marks the account as changed.
+    AccountBalances balances;
+    try {
+      balances = bankAccountService.getBalance(bankAccountId);
+    } catch (RuntimeException e) {
+      subscription.close();
+      throw e;
+    }
+    subscription.offer(balances);
+    return emitter;
+  }
+
+  @EventListener
+  public void onBalancesChanged(BalancesChangedEvent event) {
+    for (Long bankAccountId : event.bankAccountIds()) {
+      if (subscriptions.containsKey(bankAccountId)) {
+        changed.add(bankAccountId);
+      }
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${bankaccount.balance-stream.push-interval:1s}")
+  public void pushChanges() {
+    for (Iterator<Long> iterator = changed.iterator(); iterator.hasNext(); ) {
+      Long bankAccountId = iterator.next();
+      iterator.remove();
+      Set<Subscription> subscribers = subscriptions.get(bankAccountId);
+      if (subscribers == null) {
+        continue;
+      }
+      AccountBalances balances;
+      try {
+        balances = bankAccountService.getBalance(bankAccountId);
+      } catch (NotFoundException e) {
+        subscribers.forEach(subscription -> subscription.emitter.complete());
+        continue;
+      } catch (RuntimeException e) {
+        log.warn("Could not load balances of account {}: {}", bankAccountId, e.getMessage());
+        changed.add(bankAccountId);
+        continue;
+      }
+      subscribers.forEach(subscription -> subscription.offer(balances));
+    }
+  }
+
+  int subscriptionCount() {
+    return subscriptionCount.get();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("bankaccount.balance.stream.subscriptions", subscriptionCount, AtomicInteger::get)
+        .description("Open balance stream subscriptions")
+        .register(registry);
+  }
+
+  private final class Subscription {
+
+    private final Long bankAccountId;
+    private final SseEmitter emitter;
+    private final AtomicReference<AccountBalances> pending = new AtomicReference<>();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private long sentVersion = -1;
+
+    private Subscription(Long bankAccountId, SseEmitter emitter) {
+      this.bankAccountId = bankAccountId;
+      this.emitter = emitter;
+    }
+
+    /** Replaces balances not yet sent, so at most one snapshot waits per subscriber. */
+    private void offer(AccountBalances balances) {
+      pending.set(balances);
+      if (sending.compareAndSet(false, true)) {
+        sender.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      do {
+        AccountBalances balances;
+        while ((balances = pending.getAndSet(null)) != null) {
+          if (balances.version() > sentVersion && !send(balances)) {
+            return;
+          }
+        }
+        sending.set(false);
+      } while (pending.get() != null && sending.compareAndSet(false, true));
+    }
+
+    private boolean send(AccountBalances balances) {
+      try {
+        emitter.send(
+            SseEmitter.event()
+                .id(Long.toString(balances.version()))
+                .name("balances")
+                .data(balances.balances(), MediaType.APPLICATION_JSON));
+        sentVersion = balances.version();
+        return true;
+      } catch (IOException | IllegalStateException e) {
+        log.debug("Closing balance stream of account {}: {}", bankAccountId, e.getMessage());
+        close();
+        return false;
+      }
+    }
+
+    private void close() {
+      if (!closed.compareAndSet(false, true)) {
+        return;
+      }
+      subscriptions.computeIfPresent(
+          bankAccountId,
+          (id, subscribers) -> {
+            subscribers.remove(this);
+            return subscribers.isEmpty() ? null : subscribers;
+          });
+      subscriptionCount.decrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,6 @@
+package com.homework.bankaccount.service;
+
+import java.util.Collection;
+
+/** Published after a transaction that changed the balances of these accounts commits. */
+public record BalancesChangedEvent(Collection<Long> bankAccountIds) {}
@@ -0,0 +1,92 @@
+package com.homework.bankaccount.service;
+
+import com.homework.bankaccount.exception.BadRequestException;
+import com.homework.bankaccount.exception.ConflictException;
+import com.homework.bankaccount.exception.ExternalSystemUnavailableException;
+import com.homework.bankaccount.exception.InsufficientFundsException;
+import com.homework.bankaccount.exception.NotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timers for service operations ({@code bankaccount.operation}, tagged by outcome) and for the
+ * phases within them ({@code bankaccount.operation.phase}), plus a {@code
+ * bankaccount.operation.failures} counter per failure reason.
+ */
+@Component
+@RequiredArgsConstructor
+public class BankAccountMetrics {
+
+  private final MeterRegistry meterRegistry;
+
+  public <T> T operation(String operation, Supplier<T> body) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "success";
+    try {
+      return body.get();
+    } catch (RuntimeException e) {
+      outcome = outcome(e);
+      Counter.builder("bankaccount.operation.failures")
+          .description("Failed service operations by reason")
+          .tags("operation", operation, "reason", outcome)
+          .register(meterRegistry)
+          .increment();
+      throw e;
+    } finally {
+      sample.stop(
+          Timer.builder("bankaccount.operation")
+              .description("Service operation latency")
+              .tags("operation", operation, "outcome", outcome)
+              .publishPercentileHistogram()
+              .register(meterRegistry));
+    }
+  }
+
+  public void operation(String operation, Runnable body) {
+    operation(
+        operation,
+        () -> {
+          body.run();
+          return null;
+        });
+  }
+
+  public <T> T phase(String operation, String phase, Supplier<T> body) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    try {
+      return body.get();
+    } finally {
+      sample.stop(
+          Timer.builder("bankaccount.operation.phase")
+              .description("Latency of a phase within a service operation")
+              .tags("operation", operation, "phase", phase)
+              .publishPercentileHistogram()
+              .register(meterRegistry));
+    }
+  }
+
+  public void phase(String operation, String phase, Runnable body) {
+    phase(
+        operation,
+        phase,
+        () -> {
+          body.run();
+          return null;
+        });
+  }
+
+  static String outcome(RuntimeException e) {
+    return switch (e) {
+      case InsufficientFundsException ignored -> "insufficient_funds";
+      case NotFoundException ignored -> "not_found";
+      case ExternalSystemUnavailableException ignored -> "upstream_failure";
+      case BadRequestException ignored -> "bad_request";
+      case ConflictException ignored -> "conflict";
+      default -> "error";
+    };
+  }
+}
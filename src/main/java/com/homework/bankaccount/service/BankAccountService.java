@@ -1,8 +1,12 @@
 package com.homework.bankaccount.service;
 
+import com.homework.bankaccount.engine.ShardedBalanceEngine;
 import com.homework.bankaccount.entities.BalanceEntity;
 import com.homework.bankaccount.entities.BankAccountEntity;
+import com.homework.bankaccount.enums.BatchMode;
 import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.LedgerEntryType;
+import com.homework.bankaccount.enums.TransactionType;
 import com.homework.bankaccount.exception.BadRequestException;
 import com.homework.bankaccount.exception.ExternalSystemUnavailableException;
 import com.homework.bankaccount.exception.InsufficientFundsException;
@@ -10,35 +14,68 @@ import com.homework.bankaccount.exception.NotFoundException;
 import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
 import com.homework.bankaccount.httpclient.response.ExternalSystemResponse;
 import com.homework.bankaccount.mapper.BalanceMapper;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.rates.ExchangeRateService;
+import com.homework.bankaccount.rates.ExchangeRateSnapshot;
+import com.homework.bankaccount.repository.AccountBalanceView;
 import com.homework.bankaccount.repository.BalanceRepository;
+import com.homework.bankaccount.repository.BalanceView;
 import com.homework.bankaccount.repository.BankAccountRepository;
+import com.homework.bankaccount.request.BatchTransactionRequest;
+import com.homework.bankaccount.request.BulkCreateAccountsRequest;
 import com.homework.bankaccount.request.MoneyRequest;
+import com.homework.bankaccount.request.NewAccount;
+import com.homework.bankaccount.request.TransferRequest;
+import com.homework.bankaccount.response.AccountBalances;
+import com.homework.bankaccount.response.AccountBalancesResponse;
+import com.homework.bankaccount.response.AccountPage;
+import com.homework.bankaccount.response.AccountResponse;
 import com.homework.bankaccount.response.BalanceResponse;
+import com.homework.bankaccount.response.BatchTransactionResponse;
+import com.homework.bankaccount.response.BulkCreateAccountsResponse;
+import com.homework.bankaccount.response.TransferResponse;
 import jakarta.transaction.Transactional;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class BankAccountService {
 
-  private static final Map<Currency, BigDecimal> TO_EUR =
-      Map.of(
-          Currency.EUR, BigDecimal.ONE,
-          Currency.USD, new BigDecimal("0.85"),
-          Currency.SEK, new BigDecimal("0.094"),
-          Currency.GBP, new BigDecimal("1.15"));
+  static final int MAX_PAGE_SIZE = 1000;
+
+  private static final String FOREIGN_KEY_VIOLATION = "23503";
+
   private final BankAccountRepository bankAccountRepository;
   private final BalanceRepository balanceRepository;
+  private final FundHoldService fundHoldService;
+  private final BatchTransactionService batchTransactionService;
+  private final TransferService transferService;
+  private final LedgerService ledgerService;
+  private final ShardedBalanceEngine shardedBalanceEngine;
+  private final ExchangeRateService exchangeRateService;
+  private final BalanceCache balanceCache;
+  private final BankAccountMetrics bankAccountMetrics;
+  private final IdempotencyService idempotencyService;
   private final ExternalSystemRestClient externalSystemRestClient;
   private final BalanceMapper balanceMapper;
+  private final ConcurrencyControl concurrencyControl;
+  private final ConflictRetryExecutor conflictRetryExecutor;
 
   private BankAccountEntity getBankAccount(Long bankAccountId) {
     return bankAccountRepository
@@ -47,120 +84,444 @@ public class BankAccountService {
   }
 
   public BankAccountEntity createAccount(String name) {
-    BankAccountEntity bankAccountEntity = new BankAccountEntity();
-    bankAccountEntity.setName(name);
-    return bankAccountRepository.save(bankAccountEntity);
+    return bankAccountMetrics.operation(
+        "create",
+        () -> {
+          BankAccountEntity bankAccountEntity = new BankAccountEntity();
+          bankAccountEntity.setName(name);
+          BankAccountEntity created = bankAccountRepository.save(bankAccountEntity);
+          if (shardedBalanceEngine.isEnabled()) {
+            shardedBalanceEngine.registerAccount(created.getId());
+          }
+          return created;
+        });
   }
 
+  /**
+   * Creates all accounts and their opening balances in one transaction. Ids come from pooled
+   * sequences, so the rows are written as JDBC batches rather than one insert per row.
+   */
   @Transactional
-  public void addMoney(Long bankAccountId, MoneyRequest request) {
-    BankAccountEntity bankAccountEntity = getBankAccount(bankAccountId);
-
-    BalanceEntity balanceEntity =
-        bankAccountEntity.getBalances().stream()
-            .filter(balance -> balance.getCurrency().equals(request.currency()))
-            .findFirst()
-            .orElseGet(
-                () -> {
-                  BalanceEntity balance = new BalanceEntity();
-                  balance.setCurrency(request.currency());
-                  balance.setBankAccount(bankAccountEntity);
-                  balance.setAmount(BigDecimal.ZERO);
-                  return balance;
-                });
-
-    balanceEntity.setAmount(
-        balanceEntity.getAmount().add(request.amount()).setScale(4, RoundingMode.HALF_UP));
-    balanceRepository.save(balanceEntity);
+  public BulkCreateAccountsResponse createAccounts(BulkCreateAccountsRequest request) {
+    return bankAccountMetrics.operation(
+        "bulk_create",
+        () -> {
+          if (shardedBalanceEngine.isEnabled()) {
+            throw new BadRequestException(
+                "Bulk account creation is not supported by the sharded engine");
+          }
+          List<BankAccountEntity> accounts = new ArrayList<>(request.accounts().size());
+          for (NewAccount newAccount : request.accounts()) {
+            BankAccountEntity account = new BankAccountEntity();
+            account.setName(newAccount.name());
+            accounts.add(account);
+          }
+          bankAccountRepository.saveAll(accounts);
+
+          List<BalanceEntity> balances = new ArrayList<>();
+          for (int index = 0; index < accounts.size(); index++) {
+            List<MoneyRequest> openingBalances = request.accounts().get(index).openingBalances();
+            if (openingBalances == null) {
+              continue;
+            }
+            Set<Currency> currencies = EnumSet.noneOf(Currency.class);
+            for (MoneyRequest opening : openingBalances) {
+              if (!currencies.add(opening.currency())) {
+                throw new BadRequestException(
+                    "Duplicate opening balance in " + opening.currency() + " for account " + index);
+              }
+              BalanceEntity balance = new BalanceEntity();
+              balance.setBankAccount(accounts.get(index));
+              balance.setCurrency(opening.currency());
+              balance.setAmount(Money.of(opening.amount()));
+              ledgerService.record(balance, balance.getAmount(), LedgerEntryType.DEPOSIT);
+              balances.add(balance);
+            }
+          }
+          balanceRepository.saveAll(balances);
+          return new BulkCreateAccountsResponse(
+              accounts.stream().map(BankAccountEntity::getId).toList());
+        });
   }
 
   @Transactional
-  public void debitMoney(Long bankAccountId, MoneyRequest request) {
-    BankAccountEntity bankAccountEntity = getBankAccount(bankAccountId);
+  public Money addMoney(Long bankAccountId, MoneyRequest request) {
+    return addMoney(bankAccountId, request, null);
+  }
 
-    BalanceEntity balanceEntity =
-        bankAccountEntity.getBalances().stream()
-            .filter(balance -> balance.getCurrency().equals(request.currency()))
-            .findFirst()
-            .orElseThrow(() -> new NotFoundException("Currency not found: " + request.currency()));
+  /** A repeated {@code idempotencyKey} returns the original balance without depositing again. */
+  @Transactional
+  public Money addMoney(Long bankAccountId, MoneyRequest request, String idempotencyKey) {
+    return bankAccountMetrics.operation(
+        "deposit",
+        () ->
+            idempotent(
+                idempotencyKey,
+                describe("deposit", bankAccountId, request),
+                () -> deposit(bankAccountId, request)));
+  }
 
-    if (balanceEntity.getAmount().compareTo(request.amount()) < 0) {
-      throw new InsufficientFundsException("Insufficient funds for debit");
+  private Money deposit(Long bankAccountId, MoneyRequest request) {
+    Money amount = Money.of(request.amount());
+    if (shardedBalanceEngine.isEnabled()) {
+      return shardedBalanceEngine.deposit(bankAccountId, request.currency(), amount);
     }
+    balanceCache.evictAfterCommit(bankAccountId);
+    try {
+      long balanceUnits =
+          bankAccountMetrics.phase(
+              "deposit",
+              "update",
+              () ->
+                  balanceRepository.deposit(
+                      bankAccountId,
+                      request.currency().name(),
+                      amount.units(),
+                      LedgerEntryType.DEPOSIT.name()));
+      return Money.ofUnits(balanceUnits);
+    } catch (DataIntegrityViolationException e) {
+      if (isForeignKeyViolation(e)) {
+        throw new NotFoundException("Bank account not found: " + bankAccountId);
+      }
+      throw e;
+    }
+  }
+
+  /** Other integrity violations, e.g. a numeric overflow of the balance, are not a 404. */
+  private static boolean isForeignKeyViolation(DataIntegrityViolationException e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException sqlException
+          && FOREIGN_KEY_VIOLATION.equals(sqlException.getSQLState())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Phases: {@code reserve} (row lock and conditional update), {@code authorize} (external
+   * system) and {@code settle}.
+   */
+  public Money debitMoney(Long bankAccountId, MoneyRequest request) {
+    return debitMoney(bankAccountId, request, null);
+  }
+
+  /**
+   * Debits run in several transactions, so the key is claimed in its own short-lived transaction,
+   * completed in the transaction that settles the hold and freed again when the debit fails.
+   */
+  public Money debitMoney(Long bankAccountId, MoneyRequest request, String idempotencyKey) {
+    return bankAccountMetrics.operation(
+        "debit",
+        () -> {
+          if (idempotencyKey == null) {
+            return debit(bankAccountId, request, null, null);
+          }
+          String description = describe("debit", bankAccountId, request);
+          Optional<IdempotentResult> previous =
+              idempotencyService.claim(idempotencyKey, description);
+          if (previous.isPresent()) {
+            return previous.get().balance();
+          }
+          try {
+            return debit(bankAccountId, request, idempotencyKey, description);
+          } catch (RuntimeException e) {
+            idempotencyService.abandon(idempotencyKey);
+            throw e;
+          }
+        });
+  }
 
+  private Money debit(
+      Long bankAccountId, MoneyRequest request, String idempotencyKey, String description) {
+    Money amount = Money.of(request.amount());
+    if (shardedBalanceEngine.isEnabled()) {
+      bankAccountMetrics.phase("debit", "authorize", this::authorizeDebit);
+      Money balance = shardedBalanceEngine.debit(bankAccountId, request.currency(), amount);
+      if (idempotencyKey != null) {
+        // The engine has already applied the debit, so a failure here must not abandon the key.
+        try {
+          idempotencyService.complete(idempotencyKey, description, balance);
+        } catch (RuntimeException e) {
+          log.error("Could not complete idempotency key {} after debit", idempotencyKey, e);
+        }
+      }
+      return balance;
+    }
+    FundHold hold =
+        bankAccountMetrics.phase(
+            "debit",
+            "reserve",
+            () -> fundHoldService.reserve(bankAccountId, request.currency(), amount));
+    try {
+      bankAccountMetrics.phase("debit", "authorize", this::authorizeDebit);
+    } catch (RuntimeException e) {
+      fundHoldService.release(hold.holdId());
+      throw e;
+    }
+    boolean settled =
+        bankAccountMetrics.phase(
+            "debit",
+            "settle",
+            () ->
+                idempotencyKey == null
+                    ? fundHoldService.settle(hold.holdId())
+                    : fundHoldService.settle(
+                        hold.holdId(), idempotencyKey, description, hold.balance()));
+    if (!settled) {
+      throw new ExternalSystemUnavailableException("Debit authorization timed out");
+    }
+    return hold.balance();
+  }
+
+  public BatchTransactionResponse processBatch(BatchTransactionRequest request) {
+    return bankAccountMetrics.operation("batch", () -> batch(request));
+  }
+
+  private BatchTransactionResponse batch(BatchTransactionRequest request) {
+    if (shardedBalanceEngine.isEnabled()) {
+      throw new BadRequestException("Batch transactions are not supported by the sharded engine");
+    }
+    String debitRejection = null;
+    if (request.items().stream().anyMatch(item -> item.type() == TransactionType.DEBIT)) {
+      try {
+        bankAccountMetrics.phase("batch", "authorize", this::authorizeDebit);
+      } catch (ExternalSystemUnavailableException e) {
+        if (request.mode() == BatchMode.ALL_OR_NOTHING) {
+          throw e;
+        }
+        debitRejection = e.getMessage();
+      }
+    }
+    String rejection = debitRejection;
+    return new BatchTransactionResponse(
+        conflictRetryExecutor.execute(
+            "batch", () -> batchTransactionService.apply(request, rejection)));
+  }
+
+  /**
+   * Phases: {@code authorize} (one external call for the debited side) and {@code apply} (both
+   * balances locked and updated in one transaction).
+   */
+  public TransferResponse transfer(TransferRequest request) {
+    return bankAccountMetrics.operation(
+        "transfer",
+        () -> {
+          if (shardedBalanceEngine.isEnabled()) {
+            throw new BadRequestException("Transfers are not supported by the sharded engine");
+          }
+          if (request.fromAccountId().equals(request.toAccountId())) {
+            throw new BadRequestException("Cannot transfer to the same account");
+          }
+          bankAccountMetrics.phase("transfer", "authorize", this::authorizeDebit);
+          return bankAccountMetrics.phase(
+              "transfer",
+              "apply",
+              () ->
+                  conflictRetryExecutor.execute("transfer", () -> transferService.apply(request)));
+        });
+  }
+
+  private void authorizeDebit() {
     ExternalSystemResponse externalSystemResponse =
         externalSystemRestClient.getExternalSystemResponse();
     if (externalSystemResponse.getCode() != 200) {
       throw new ExternalSystemUnavailableException(externalSystemResponse.getDescription());
     }
+  }
+
+  public AccountBalances getBalance(Long bankAccountId) {
+    return bankAccountMetrics.operation(
+        "balance",
+        () ->
+            shardedBalanceEngine.isEnabled()
+                ? shardedBalanceEngine.getBalance(bankAccountId)
+                : balanceCache.get(bankAccountId, this::loadBalances));
+  }
+
+  private AccountBalances loadBalances(Long bankAccountId) {
+    List<BalanceView> views = balanceRepository.findBalanceViews(bankAccountId);
+    if (views.isEmpty()) {
+      throw new NotFoundException("Bank account not found: " + bankAccountId);
+    }
+    long version = 0;
+    List<BalanceResponse> balances = new ArrayList<>(views.size());
+    for (BalanceView view : views) {
+      if (view.currency() != null) {
+        version += view.ledgerSeq();
+        balances.add(balanceMapper.toResponse(view));
+      }
+    }
+    return new AccountBalances(version, List.copyOf(balances));
+  }
 
-    balanceEntity.setAmount(
-        balanceEntity.getAmount().subtract(request.amount()).setScale(4, RoundingMode.HALF_UP));
-    balanceRepository.save(balanceEntity);
+  /**
+   * Balances of several accounts, ordered by account id, resolved in one query. Missing accounts
+   * are left out of the result rather than failing the lookup.
+   */
+  public List<AccountBalancesResponse> lookupBalances(List<Long> bankAccountIds) {
+    return bankAccountMetrics.operation(
+        "balance_lookup",
+        () ->
+            shardedBalanceEngine.isEnabled()
+                ? lookupEngineBalances(bankAccountIds)
+                : lookupStoredBalances(bankAccountIds));
   }
 
-  public List<BalanceResponse> getBalance(Long bankAccountId) {
-    BankAccountEntity bankAccountEntity = getBankAccount(bankAccountId);
-    return bankAccountEntity.getBalances().stream().map(balanceMapper::toResponse).toList();
+  private List<AccountBalancesResponse> lookupStoredBalances(List<Long> bankAccountIds) {
+    List<AccountBalanceView> views =
+        balanceRepository.findAccountBalanceViews(Set.copyOf(bankAccountIds));
+    List<AccountBalancesResponse> accounts = new ArrayList<>();
+    List<BalanceResponse> balances = null;
+    Long current = null;
+    for (AccountBalanceView view : views) {
+      if (!view.bankAccountId().equals(current)) {
+        current = view.bankAccountId();
+        balances = new ArrayList<>();
+        accounts.add(new AccountBalancesResponse(current, balances));
+      }
+      if (view.currency() != null) {
+        balances.add(balanceMapper.toResponse(view));
+      }
+    }
+    return accounts;
+  }
+
+  private List<AccountBalancesResponse> lookupEngineBalances(List<Long> bankAccountIds) {
+    List<AccountBalancesResponse> accounts = new ArrayList<>();
+    for (Long bankAccountId : new TreeSet<>(bankAccountIds)) {
+      try {
+        accounts.add(
+            new AccountBalancesResponse(
+                bankAccountId, shardedBalanceEngine.getBalance(bankAccountId).balances()));
+      } catch (NotFoundException e) {
+        // Left out, as in the stored lookup.
+      }
+    }
+    return accounts;
+  }
+
+  /** Accounts with an id greater than {@code afterId}, at most {@code limit} of them. */
+  public AccountPage listAccounts(long afterId, int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    return bankAccountMetrics.operation(
+        "list",
+        () -> {
+          List<AccountResponse> accounts =
+              bankAccountRepository.findPageAfter(afterId, Limit.of(limit));
+          Long nextAfterId = accounts.size() < limit ? null : accounts.getLast().id();
+          return new AccountPage(accounts, nextAfterId);
+        });
   }
 
-  @Transactional
   public void exchangeCurrency(
-      Long bankAccountId, Currency fromCurrency, Currency toCurrency, BigDecimal amount) {
+      Long bankAccountId, Currency fromCurrency, Currency toCurrency, Money amount) {
+    exchangeCurrency(bankAccountId, fromCurrency, toCurrency, amount, null);
+  }
+
+  /** Runs in its own transaction, repeated by {@link ConflictRetryExecutor} on conflicts. */
+  public void exchangeCurrency(
+      Long bankAccountId,
+      Currency fromCurrency,
+      Currency toCurrency,
+      Money amount,
+      String idempotencyKey) {
+    String description =
+        "exchange:" + bankAccountId + ":" + fromCurrency + ":" + toCurrency + ":" + amount;
+    bankAccountMetrics.operation(
+        "exchange",
+        () ->
+            conflictRetryExecutor.execute(
+                "exchange",
+                () ->
+                    idempotent(
+                        idempotencyKey,
+                        description,
+                        () -> {
+                          exchange(bankAccountId, fromCurrency, toCurrency, amount);
+                          return null;
+                        })));
+  }
+
+  private void exchange(
+      Long bankAccountId, Currency fromCurrency, Currency toCurrency, Money amount) {
     if (fromCurrency == toCurrency) {
       return;
     }
 
-    BankAccountEntity bankAccountEntity = getBankAccount(bankAccountId);
+    ExchangeRateSnapshot rates = exchangeRateService.current();
+    Money target = rates.convert(amount, fromCurrency, toCurrency);
+    if (shardedBalanceEngine.isEnabled()) {
+      shardedBalanceEngine.exchange(
+          bankAccountId, fromCurrency, amount, toCurrency, target, rates.version());
+      return;
+    }
+
+    BankAccountEntity bankAccountEntity =
+        bankAccountMetrics.phase("exchange", "load", () -> getBankAccount(bankAccountId));
+    // Created before locking, so a first exchange into a currency meets concurrent deposits on the
+    // upsert instead of the unique constraint.
+    balanceRepository.createIfMissing(bankAccountId, toCurrency.name());
+    List<BalanceEntity> balances =
+        concurrencyControl.lockRows(List.of(bankAccountId))
+            ? bankAccountMetrics.phase(
+                "exchange",
+                "lock",
+                () -> balanceRepository.findAllForUpdate(List.of(bankAccountId)))
+            : bankAccountEntity.getBalances();
 
     Map<Currency, BalanceEntity> balancesMap =
-        bankAccountEntity.getBalances().stream()
+        balances.stream()
             .collect(Collectors.toMap(BalanceEntity::getCurrency, Function.identity()));
 
     BalanceEntity fromBalance = balancesMap.get(fromCurrency);
-    BalanceEntity toBalance = getOrCreateBalance(bankAccountEntity, balancesMap, toCurrency);
+    if (fromBalance == null) {
+      throw new NotFoundException("Currency not found: " + fromCurrency);
+    }
+    BalanceEntity toBalance = balancesMap.get(toCurrency);
 
-    if (fromBalance.getAmount().compareTo(amount) < 0) {
+    if (fromBalance.getAmount().isLessThan(amount)) {
       throw new InsufficientFundsException("Insufficient funds for exchange");
     }
 
-    fromBalance.setAmount(
-        fromBalance.getAmount().subtract(amount).setScale(4, RoundingMode.HALF_UP));
-
-    BigDecimal eur = toEur(amount, fromCurrency);
-    BigDecimal target = fromEur(eur, toCurrency).setScale(4, RoundingMode.HALF_UP);
-
-    toBalance.setAmount(toBalance.getAmount().add(target).setScale(4, RoundingMode.HALF_UP));
-    balanceRepository.saveAll(List.of(fromBalance, toBalance));
+    fromBalance.setAmount(fromBalance.getAmount().minus(amount));
+    toBalance.setAmount(toBalance.getAmount().plus(target));
+    bankAccountMetrics.phase(
+        "exchange",
+        "update",
+        () -> {
+          balanceRepository.saveAll(List.of(fromBalance, toBalance));
+          ledgerService.record(
+              fromBalance, amount.negate(), LedgerEntryType.EXCHANGE_OUT, rates.version());
+          ledgerService.record(toBalance, target, LedgerEntryType.EXCHANGE_IN, rates.version());
+        });
+    balanceCache.evictAfterCommit(bankAccountId);
   }
 
-  private static BalanceEntity getOrCreateBalance(
-          BankAccountEntity account, Map<Currency, BalanceEntity> balances, Currency currency) {
-
-    BalanceEntity existing = balances.get(currency);
-    if (existing != null) {
-      return existing;
+  /** Runs {@code operation} once per key; the claim shares the caller's transaction. */
+  private Money idempotent(String idempotencyKey, String description, Supplier<Money> operation) {
+    if (idempotencyKey == null) {
+      return operation.get();
     }
-
-    BalanceEntity created = new BalanceEntity();
-    created.setCurrency(currency);
-    created.setBankAccount(account);
-    account.getBalances().add(created);
-    balances.put(currency, created);
-    return created;
+    Optional<IdempotentResult> previous = idempotencyService.claim(idempotencyKey, description);
+    if (previous.isPresent()) {
+      return previous.get().balance();
+    }
+    Money balance = operation.get();
+    idempotencyService.complete(idempotencyKey, description, balance);
+    return balance;
   }
 
-  private BigDecimal toEur(BigDecimal amount, Currency from) {
-    BigDecimal rate =
-        Optional.ofNullable(TO_EUR.get(from))
-            .orElseThrow(() -> new BadRequestException("Unsupported currency: " + from));
-    return amount.multiply(rate);
+  private static String describe(String operation, Long bankAccountId, MoneyRequest request) {
+    return operation
+        + ":"
+        + bankAccountId
+        + ":"
+        + request.currency()
+        + ":"
+        + Money.of(request.amount());
   }
 
-  private BigDecimal fromEur(BigDecimal amountEur, Currency to) {
-    BigDecimal toRateEur =
-        Optional.ofNullable(TO_EUR.get(to))
-            .orElseThrow(() -> new BadRequestException("Unsupported currency: " + to));
-    return amountEur.divide(toRateEur, 8, RoundingMode.HALF_UP);
-  }
 }
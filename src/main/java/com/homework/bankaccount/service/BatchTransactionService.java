@@ -0,0 +1,167 @@
+package com.homework.bankaccount.service;
+
+import com.homework.bankaccount.entities.BalanceEntity;
+import com.homework.bankaccount.enums.BatchItemStatus;
+import com.homework.bankaccount.enums.BatchMode;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.LedgerEntryType;
+import com.homework.bankaccount.enums.TransactionType;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.repository.BalanceRepository;
+import com.homework.bankaccount.repository.BankAccountRepository;
+import com.homework.bankaccount.request.BatchTransactionItem;
+import com.homework.bankaccount.request.BatchTransactionRequest;
+import com.homework.bankaccount.response.BatchItemResult;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Applies a batch of deposits and debits in one transaction: the balances of all accounts in the
+ * batch are loaded (and locked, see {@link ConcurrencyControl}) with one query, the items are
+ * applied in memory in request order, and the changed rows and their ledger entries are flushed as
+ * JDBC batches.
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchTransactionService {
+
+  private record BalanceKey(Long accountId, Currency currency) {}
+
+  private final BankAccountRepository bankAccountRepository;
+  private final BalanceRepository balanceRepository;
+  private final LedgerService ledgerService;
+  private final BalanceCache balanceCache;
+  private final ConcurrencyControl concurrencyControl;
+
+  /**
+   * @param debitRejection reason to reject every debit item with, or {@code null} when debits were
+   *     authorized by the external system
+   */
+  @Transactional
+  public List<BatchItemResult> apply(BatchTransactionRequest request, String debitRejection) {
+    List<BatchTransactionItem> items = request.items();
+    Set<Long> accountIds =
+        items.stream().map(BatchTransactionItem::accountId).collect(Collectors.toSet());
+    Set<Long> existingAccountIds = new HashSet<>(bankAccountRepository.findExistingIds(accountIds));
+
+    Map<BalanceKey, BalanceEntity> balances = new HashMap<>();
+    Set<BalanceKey> created = new HashSet<>();
+    if (!existingAccountIds.isEmpty()) {
+      // Created before locking, in a fixed order, so first deposits racing with other writers meet
+      // on the upsert instead of the unique constraint.
+      items.stream()
+          .filter(
+              item ->
+                  item.type() == TransactionType.DEPOSIT
+                      && existingAccountIds.contains(item.accountId()))
+          .map(item -> new BalanceKey(item.accountId(), item.currency()))
+          .distinct()
+          .sorted(Comparator.comparing(BalanceKey::accountId).thenComparing(BalanceKey::currency))
+          .filter(
+              key -> balanceRepository.createIfMissing(key.accountId(), key.currency().name()) > 0)
+          .forEach(created::add);
+      List<BalanceEntity> rows =
+          concurrencyControl.lockRows(existingAccountIds)
+              ? balanceRepository.findAllForUpdate(existingAccountIds)
+              : balanceRepository.findAllByAccounts(existingAccountIds);
+      for (BalanceEntity balance : rows) {
+        Long accountId = balance.getBankAccount().getId();
+        balances.put(new BalanceKey(accountId, balance.getCurrency()), balance);
+      }
+    }
+
+    Map<BalanceKey, Money> amounts = new HashMap<>();
+    balances.forEach(
+        (key, balance) -> {
+          if (!created.contains(key)) {
+            amounts.put(key, balance.getAmount());
+          }
+        });
+
+    List<BatchItemResult> results = new ArrayList<>(items.size());
+    Money[] balancesAfter = new Money[items.size()];
+    boolean rejected = false;
+    for (int index = 0; index < items.size(); index++) {
+      BatchTransactionItem item = items.get(index);
+      String error = applyItem(item, existingAccountIds, amounts, debitRejection);
+      if (error == null) {
+        balancesAfter[index] = amounts.get(new BalanceKey(item.accountId(), item.currency()));
+        results.add(
+            new BatchItemResult(
+                index, BatchItemStatus.APPLIED, balancesAfter[index].toBigDecimal(), null));
+      } else {
+        results.add(new BatchItemResult(index, BatchItemStatus.REJECTED, null, error));
+      }
+      rejected |= error != null;
+    }
+
+    if (rejected && request.mode() == BatchMode.ALL_OR_NOTHING) {
+      return results.stream().map(BatchTransactionService::notApplied).toList();
+    }
+
+    Set<Long> changedAccountIds = new HashSet<>();
+    for (BatchItemResult result : results) {
+      if (result.status() == BatchItemStatus.APPLIED) {
+        BatchTransactionItem item = items.get(result.index());
+        changedAccountIds.add(item.accountId());
+        BalanceEntity balance = balances.get(new BalanceKey(item.accountId(), item.currency()));
+        Money balanceAfter = balancesAfter[result.index()];
+        Money delta = balanceAfter.minus(balance.getAmount());
+        balance.setAmount(balanceAfter);
+        ledgerService.record(
+            balance,
+            delta,
+            item.type() == TransactionType.DEPOSIT
+                ? LedgerEntryType.DEPOSIT
+                : LedgerEntryType.DEBIT);
+      }
+    }
+    balanceCache.evictAfterCommit(changedAccountIds);
+    return results;
+  }
+
+  private static String applyItem(
+      BatchTransactionItem item,
+      Set<Long> existingAccountIds,
+      Map<BalanceKey, Money> amounts,
+      String debitRejection) {
+    if (!existingAccountIds.contains(item.accountId())) {
+      return "Bank account not found: " + item.accountId();
+    }
+
+    BalanceKey key = new BalanceKey(item.accountId(), item.currency());
+    Money amount = Money.of(item.amount());
+    Money current = amounts.get(key);
+
+    if (item.type() == TransactionType.DEPOSIT) {
+      amounts.put(key, current == null ? amount : current.plus(amount));
+      return null;
+    }
+    if (debitRejection != null) {
+      return debitRejection;
+    }
+    if (current == null) {
+      return "Currency not found: " + item.currency();
+    }
+    if (current.isLessThan(amount)) {
+      return "Insufficient funds for debit";
+    }
+    amounts.put(key, current.minus(amount));
+    return null;
+  }
+
+  private static BatchItemResult notApplied(BatchItemResult result) {
+    return result.status() == BatchItemStatus.APPLIED
+        ? new BatchItemResult(result.index(), BatchItemStatus.NOT_APPLIED, null, null)
+        : result;
+  }
+}
@@ -0,0 +1,28 @@
+package com.homework.bankaccount.service;
+
+import com.homework.bankaccount.config.ConcurrencyConfig;
+import com.homework.bankaccount.enums.ConcurrencyMode;
+import java.util.Collection;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chooses how balances read as entities are protected: locked with {@code SELECT ... FOR UPDATE},
+ * or read without locks and checked against their {@code version} on update. The single-statement
+ * deposit and debit queries are atomic in both modes.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConcurrencyControl {
+
+  private final ConcurrencyConfig concurrencyConfig;
+
+  public boolean lockRows(Collection<Long> bankAccountIds) {
+    if (concurrencyConfig.getMode() == ConcurrencyMode.PESSIMISTIC) {
+      return true;
+    }
+    Set<Long> hotAccountIds = concurrencyConfig.getHotAccountIds();
+    return bankAccountIds.stream().anyMatch(hotAccountIds::contains);
+  }
+}
@@ -0,0 +1,82 @@
+package com.homework.bankaccount.service;
+
+import com.homework.bankaccount.config.ConcurrencyConfig;
+import com.homework.bankaccount.exception.ConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs a unit of work in its own transaction and repeats it when it loses a race: a stale {@code
+ * version}, a lock timeout or a deadlock. Attempts are spaced with exponential backoff and full
+ * jitter; when {@code max-attempts} is used up the caller gets a {@link ConflictException}.
+ *
+ * <p>Publishes {@code bankaccount.concurrency.conflicts} (tagged {@code retried} or {@code
+ * exhausted}) and the {@code bankaccount.concurrency.attempts} needed per operation.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConflictRetryExecutor {
+
+  private final TransactionOperations transactionOperations;
+  private final ConcurrencyConfig concurrencyConfig;
+  private final MeterRegistry meterRegistry;
+
+  /** Inside an existing transaction {@code body} runs once; retrying is up to its owner. */
+  public <T> T execute(String operation, Supplier<T> body) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return body.get();
+    }
+    for (int attempt = 1; ; attempt++) {
+      try {
+        T result = transactionOperations.execute(status -> body.get());
+        attempts(operation).record(attempt);
+        return result;
+      } catch (ConcurrencyFailureException | OptimisticLockException e) {
+        if (attempt >= concurrencyConfig.getMaxAttempts()) {
+          conflicts(operation, "exhausted").increment();
+          attempts(operation).record(attempt);
+          throw new ConflictException("Balance was changed concurrently, please retry");
+        }
+        conflicts(operation, "retried").increment();
+        backoff(attempt);
+      }
+    }
+  }
+
+  private void backoff(int attempt) {
+    long ceiling =
+        Math.min(
+            concurrencyConfig.getMaxBackoff().toNanos(),
+            concurrencyConfig.getInitialBackoff().toNanos() << Math.min(attempt - 1, 20));
+    try {
+      TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConflictException("Interrupted while retrying a concurrent update");
+    }
+  }
+
+  private Counter conflicts(String operation, String resolution) {
+    return Counter.builder("bankaccount.concurrency.conflicts")
+        .description("Concurrency conflicts by how they were resolved")
+        .tags("operation", operation, "resolution", resolution)
+        .register(meterRegistry);
+  }
+
+  private DistributionSummary attempts(String operation) {
+    return DistributionSummary.builder("bankaccount.concurrency.attempts")
+        .description("Attempts needed to complete an operation")
+        .tags("operation", operation)
+        .register(meterRegistry);
+  }
+}
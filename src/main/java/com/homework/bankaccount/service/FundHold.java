@@ -0,0 +1,5 @@
+package com.homework.bankaccount.service;
+
+import com.homework.bankaccount.money.Money;
+
+public record FundHold(Long holdId, Money balance) {}
@@ -0,0 +1,113 @@
+package com.homework.bankaccount.service;
+
+import com.homework.bankaccount.config.FundHoldConfig;
+import com.homework.bankaccount.entities.BalanceHoldEntity;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.HoldStatus;
+import com.homework.bankaccount.enums.LedgerEntryType;
+import com.homework.bankaccount.exception.InsufficientFundsException;
+import com.homework.bankaccount.exception.NotFoundException;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.repository.BalanceHoldRepository;
+import com.homework.bankaccount.repository.BalanceRepository;
+import com.homework.bankaccount.repository.BankAccountRepository;
+import jakarta.transaction.Transactional;
+import java.time.Instant;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+/**
+ * Each method runs in its own short transaction so that no connection is held while a debit is
+ * being authorized by the external system.
+ */
+@Service
+@RequiredArgsConstructor
+public class FundHoldService {
+
+  private final BankAccountRepository bankAccountRepository;
+  private final BalanceRepository balanceRepository;
+  private final BalanceHoldRepository balanceHoldRepository;
+  private final FundHoldConfig fundHoldConfig;
+  private final BalanceCache balanceCache;
+  private final IdempotencyService idempotencyService;
+
+  @Transactional
+  public FundHold reserve(Long bankAccountId, Currency currency, Money amount) {
+    long balance =
+        balanceRepository
+            .debit(bankAccountId, currency.name(), amount.units())
+            .orElseThrow(() -> debitRejected(bankAccountId, currency));
+    balanceCache.evictAfterCommit(bankAccountId);
+
+    BalanceHoldEntity hold = new BalanceHoldEntity();
+    hold.setBankAccountId(bankAccountId);
+    hold.setCurrency(currency);
+    hold.setAmount(amount);
+    hold.setStatus(HoldStatus.PENDING);
+    hold.setExpiresAt(Instant.now().plus(fundHoldConfig.getTtl()));
+    return new FundHold(balanceHoldRepository.save(hold).getId(), Money.ofUnits(balance));
+  }
+
+  /** Returns {@code false} when the hold is no longer pending or has expired. */
+  @Transactional
+  public boolean settle(Long holdId) {
+    return balanceHoldRepository.transitionUnexpired(
+            holdId, HoldStatus.PENDING, HoldStatus.SETTLED, Instant.now())
+        == 1;
+  }
+
+  /** Settles the hold and completes the debit's idempotency key in the same transaction. */
+  @Transactional
+  public boolean settle(Long holdId, String idempotencyKey, String request, Money balance) {
+    if (!settle(holdId)) {
+      return false;
+    }
+    idempotencyService.complete(idempotencyKey, request, balance);
+    return true;
+  }
+
+  @Transactional
+  public void release(Long holdId) {
+    balanceHoldRepository.findById(holdId).ifPresent(hold -> release(hold, HoldStatus.RELEASED));
+  }
+
+  @Transactional
+  public int expireHolds(Instant now) {
+    List<BalanceHoldEntity> expired =
+        balanceHoldRepository.findByStatusAndExpiresAtBeforeOrderByExpiresAt(
+            HoldStatus.PENDING, now, Limit.of(fundHoldConfig.getSweepBatchSize()));
+
+    int released = 0;
+    for (BalanceHoldEntity hold : expired) {
+      if (release(hold, HoldStatus.EXPIRED)) {
+        released++;
+      }
+    }
+    return released;
+  }
+
+  private boolean release(BalanceHoldEntity hold, HoldStatus status) {
+    if (balanceHoldRepository.transition(hold.getId(), HoldStatus.PENDING, status) == 0) {
+      return false;
+    }
+    balanceRepository.deposit(
+        hold.getBankAccountId(),
+        hold.getCurrency().name(),
+        hold.getAmount().units(),
+        LedgerEntryType.DEBIT_RELEASE.name());
+    balanceCache.evictAfterCommit(hold.getBankAccountId());
+    return true;
+  }
+
+  private RuntimeException debitRejected(Long bankAccountId, Currency currency) {
+    if (!bankAccountRepository.existsById(bankAccountId)) {
+      return new NotFoundException("Bank account not found: " + bankAccountId);
+    }
+    if (!balanceRepository.existsByBankAccountIdAndCurrency(bankAccountId, currency)) {
+      return new NotFoundException("Currency not found: " + currency);
+    }
+    return new InsufficientFundsException("Insufficient funds for debit");
+  }
+}
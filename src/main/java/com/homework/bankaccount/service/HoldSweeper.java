@@ -0,0 +1,23 @@
+package com.homework.bankaccount.service;
+
+import java.time.Instant;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HoldSweeper {
+
+  private final FundHoldService fundHoldService;
+
+  @Scheduled(fixedDelayString = "${bankaccount.holds.sweep-interval:30s}")
+  public void releaseExpiredHolds() {
+    int released = fundHoldService.expireHolds(Instant.now());
+    if (released > 0) {
+      log.warn("Released {} expired fund holds", released);
+    }
+  }
+}
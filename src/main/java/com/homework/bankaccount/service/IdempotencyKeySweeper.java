@@ -0,0 +1,23 @@
+package com.homework.bankaccount.service;
+
+import java.time.Instant;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyKeySweeper {
+
+  private final IdempotencyService idempotencyService;
+
+  @Scheduled(fixedDelayString = "${bankaccount.idempotency.sweep-interval:10m}")
+  public void deleteExpiredKeys() {
+    int deleted = idempotencyService.deleteExpired(Instant.now());
+    if (deleted > 0) {
+      log.debug("Deleted {} expired idempotency keys", deleted);
+    }
+  }
+}
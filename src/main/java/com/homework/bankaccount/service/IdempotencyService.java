@@ -0,0 +1,140 @@
+package com.homework.bankaccount.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.homework.bankaccount.config.IdempotencyConfig;
+import com.homework.bankaccount.entities.IdempotencyKeyEntity;
+import com.homework.bankaccount.exception.BadRequestException;
+import com.homework.bankaccount.exception.ConflictException;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.transaction.Transactional;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Deduplicates requests carrying an {@code Idempotency-Key}. A key is claimed with an insert in
+ * the caller's transaction, so a concurrent duplicate blocks on the row until the first request
+ * commits or rolls back. Completed results are kept in a bounded in-memory tier in front of the
+ * {@code idempotency_key} table, so repeated retries do not reach the database.
+ */
+@Service
+public class IdempotencyService implements MeterBinder {
+
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private final IdempotencyKeyRepository idempotencyKeyRepository;
+  private final IdempotencyConfig idempotencyConfig;
+  private final Cache<String, IdempotentResult> completed;
+
+  public IdempotencyService(
+      IdempotencyKeyRepository idempotencyKeyRepository, IdempotencyConfig idempotencyConfig) {
+    this.idempotencyKeyRepository = idempotencyKeyRepository;
+    this.idempotencyConfig = idempotencyConfig;
+    this.completed =
+        Caffeine.newBuilder()
+            .maximumSize(idempotencyConfig.getCacheMaximumSize())
+            .expireAfterWrite(idempotencyConfig.getTtl())
+            .recordStats()
+            .build();
+  }
+
+  /**
+   * Claims {@code key} for {@code request}, a description of the operation and its arguments.
+   *
+   * @return the earlier result when the key was already used for the same request, or empty
+   *     when the caller should perform the operation and {@link #complete} the key
+   */
+  @Transactional
+  public Optional<IdempotentResult> claim(String key, String request) {
+    if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      throw new BadRequestException("Idempotency-Key must be 1 to 255 characters");
+    }
+    IdempotentResult cached = completed.getIfPresent(key);
+    if (cached != null) {
+      return Optional.of(matching(cached, request));
+    }
+    Instant expiresAt = Instant.now().plus(idempotencyConfig.getClaimTtl());
+    if (idempotencyKeyRepository.claim(key, request, expiresAt) == 1) {
+      return Optional.empty();
+    }
+    IdempotencyKeyEntity existing =
+        idempotencyKeyRepository
+            .findById(key)
+            .orElseThrow(() -> new ConflictException("Idempotency-Key is in use, retry later"));
+    if (!existing.isCompleted()) {
+      if (!existing.getRequest().equals(request)) {
+        throw reused();
+      }
+      throw new ConflictException("A request with this Idempotency-Key is in progress");
+    }
+    IdempotentResult result =
+        new IdempotentResult(existing.getRequest(), existing.getResultBalance());
+    completed.put(key, result);
+    return Optional.of(matching(result, request));
+  }
+
+  /**
+   * Stores the result with the key and extends its expiry to {@code ttl}; it is cached once the
+   * transaction commits.
+   */
+  @Transactional
+  public void complete(String key, String request, Money balance) {
+    idempotencyKeyRepository.complete(
+        key,
+        balance == null ? null : balance.units(),
+        Instant.now().plus(idempotencyConfig.getTtl()));
+    IdempotentResult result = new IdempotentResult(request, balance);
+    afterCommit(() -> completed.put(key, result));
+  }
+
+  /**
+   * Frees the key after a failed operation so that a retry can run it again. Only needed when the
+   * operation did not run in the claiming transaction; otherwise the claim is rolled back with it.
+   */
+  @Transactional
+  public void abandon(String key) {
+    idempotencyKeyRepository.abandon(key);
+  }
+
+  @Transactional
+  public int deleteExpired(Instant now) {
+    return idempotencyKeyRepository.deleteExpired(now);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, completed, "idempotency");
+  }
+
+  private static IdempotentResult matching(IdempotentResult result, String request) {
+    if (!result.request().equals(request)) {
+      throw reused();
+    }
+    return result;
+  }
+
+  private static BadRequestException reused() {
+    return new BadRequestException("Idempotency-Key was already used for a different request");
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+}
@@ -0,0 +1,6 @@
+package com.homework.bankaccount.service;
+
+import com.homework.bankaccount.money.Money;
+
+/** The outcome of a completed request; {@code balance} is {@code null} for exchanges. */
+public record IdempotentResult(String request, Money balance) {}
@@ -0,0 +1,35 @@
+package com.homework.bankaccount.service;
+
+import com.homework.bankaccount.config.LedgerConfig;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LedgerMaintenanceJob {
+
+  private final LedgerService ledgerService;
+  private final LedgerConfig ledgerConfig;
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${bankaccount.ledger.partition-cron:0 0 3 * * *}")
+  public void createUpcomingPartitions() {
+    YearMonth current = YearMonth.now(ZoneOffset.UTC);
+    for (int i = 0; i <= ledgerConfig.getPartitionsAhead(); i++) {
+      ledgerService.createPartition(current.plusMonths(i));
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${bankaccount.ledger.snapshot-interval:5m}")
+  public void takeSnapshots() {
+    int snapshots = ledgerService.takeSnapshots();
+    log.debug("Took {} balance snapshots", snapshots);
+  }
+}
@@ -0,0 +1,105 @@
+package com.homework.bankaccount.service;
+
+import com.homework.bankaccount.entities.BalanceEntity;
+import com.homework.bankaccount.entities.LedgerEntryEntity;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.LedgerEntryType;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.repository.LedgerEntryRepository;
+import jakarta.transaction.Transactional;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerService {
+
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+  private final LedgerEntryRepository ledgerEntryRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Appends a ledger entry for a change already applied to a managed balance entity. Balances
+   * changed with the single-statement queries in {@code BalanceRepository} write their entries
+   * in the same statement instead.
+   */
+  public void record(BalanceEntity balance, Money delta, LedgerEntryType entryType) {
+    record(balance, delta, entryType, null);
+  }
+
+  public void record(
+      BalanceEntity balance, Money delta, LedgerEntryType entryType, Long rateVersion) {
+    balance.setLedgerSeq(balance.getLedgerSeq() + 1);
+
+    LedgerEntryEntity entry = new LedgerEntryEntity();
+    entry.setBankAccountId(balance.getBankAccount().getId());
+    entry.setCurrency(balance.getCurrency());
+    entry.setSeq(balance.getLedgerSeq());
+    entry.setAmount(delta);
+    entry.setBalanceAfter(balance.getAmount());
+    entry.setEntryType(entryType);
+    entry.setRateVersion(rateVersion);
+    entry.setCreatedAt(Instant.now());
+    ledgerEntryRepository.save(entry);
+  }
+
+  public Money computeBalance(Long bankAccountId, Currency currency) {
+    return Money.ofUnits(ledgerEntryRepository.computeBalance(bankAccountId, currency.name()));
+  }
+
+  @Transactional
+  public int takeSnapshots() {
+    return ledgerEntryRepository.snapshotChangedBalances();
+  }
+
+  /**
+   * Creates the monthly partition in its own transaction. Entries already routed to {@code
+   * ledger_entry_default} for that month are moved into the new table before it is attached, as
+   * PostgreSQL refuses to attach a range the default partition still holds rows for.
+   */
+  public void createPartition(YearMonth month) {
+    String table = "ledger_entry_" + month.format(PARTITION_SUFFIX);
+    OffsetDateTime from = month.atDay(1).atStartOfDay(ZoneOffset.UTC).toOffsetDateTime();
+    OffsetDateTime to =
+        month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toOffsetDateTime();
+    String bounds = " FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          if (Boolean.TRUE.equals(
+              jdbcTemplate.queryForObject(
+                  "SELECT to_regclass(?) IS NOT NULL", Boolean.class, table))) {
+            return;
+          }
+          jdbcTemplate.execute("LOCK TABLE ledger_entry_default IN ACCESS EXCLUSIVE MODE");
+          jdbcTemplate.execute(
+              "CREATE TABLE "
+                  + table
+                  + " (LIKE ledger_entry INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+          int moved =
+              jdbcTemplate.update(
+                  "WITH moved AS (DELETE FROM ledger_entry_default"
+                      + " WHERE created_at >= ? AND created_at < ? RETURNING *)"
+                      + " INSERT INTO "
+                      + table
+                      + " SELECT * FROM moved",
+                  from,
+                  to);
+          jdbcTemplate.execute("ALTER TABLE ledger_entry ATTACH PARTITION " + table + bounds);
+          if (moved > 0) {
+            log.info("Moved {} ledger entries from the default partition into {}", moved, table);
+          }
+        });
+  }
+}
@@ -0,0 +1,138 @@
+package com.homework.bankaccount.service;
+
+import com.homework.bankaccount.enums.StatementFormat;
+import com.homework.bankaccount.exception.BadRequestException;
+import com.homework.bankaccount.exception.NotFoundException;
+import com.homework.bankaccount.repository.BankAccountRepository;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streams the ledger entries of an account. Rows are read through a server-side cursor in pages of
+ * {@value #FETCH_SIZE} and written to the output as they arrive, so memory use does not depend on
+ * the number of entries. Entries are ordered by currency and then by their sequence number.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatementService {
+
+  static final int FETCH_SIZE = 1_000;
+
+  private static final String SELECT_ENTRIES =
+      """
+      SELECT currency, seq, amount, balance_after, entry_type, rate_version, created_at
+      FROM ledger_entry
+      WHERE bank_account_id = ? AND created_at >= ? AND created_at < ?
+      ORDER BY currency, seq
+      """;
+
+  private static final String CSV_HEADER =
+      "currency,seq,amount,balance_after,entry_type,rate_version,created_at\n";
+
+  private final BankAccountRepository bankAccountRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  /** Validates the request up front, before any part of the response has been written. */
+  public void checkStatement(Long bankAccountId, Instant from, Instant to) {
+    if (!from.isBefore(to)) {
+      throw new BadRequestException("'from' must be before 'to'");
+    }
+    if (!bankAccountRepository.existsById(bankAccountId)) {
+      throw new NotFoundException("Bank account not found: " + bankAccountId);
+    }
+  }
+
+  public void writeStatement(
+      Long bankAccountId, Instant from, Instant to, StatementFormat format, OutputStream out)
+      throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 65_536);
+    if (format == StatementFormat.CSV) {
+      writer.write(CSV_HEADER);
+    }
+    PreparedStatementCreator query =
+        connection -> {
+          var statement =
+              connection.prepareStatement(
+                  SELECT_ENTRIES, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+          statement.setFetchSize(FETCH_SIZE);
+          statement.setLong(1, bankAccountId);
+          statement.setTimestamp(2, Timestamp.from(from));
+          statement.setTimestamp(3, Timestamp.from(to));
+          return statement;
+        };
+    RowCallbackHandler row = rs -> write(rs, format, writer);
+    try {
+      // The PostgreSQL driver only uses a cursor inside a transaction.
+      transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(query, row));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    writer.flush();
+  }
+
+  private static void write(ResultSet rs, StatementFormat format, Writer writer)
+      throws SQLException {
+    String currency = rs.getString("currency");
+    long seq = rs.getLong("seq");
+    String amount = rs.getBigDecimal("amount").toPlainString();
+    String balanceAfter = rs.getBigDecimal("balance_after").toPlainString();
+    String entryType = rs.getString("entry_type");
+    long rateVersion = rs.getLong("rate_version");
+    String rate = rs.wasNull() ? null : Long.toString(rateVersion);
+    Instant createdAt = rs.getTimestamp("created_at").toInstant();
+    try {
+      if (format == StatementFormat.CSV) {
+        writer
+            .append(currency)
+            .append(',')
+            .append(Long.toString(seq))
+            .append(',')
+            .append(amount)
+            .append(',')
+            .append(balanceAfter)
+            .append(',')
+            .append(entryType)
+            .append(',')
+            .append(rate == null ? "" : rate)
+            .append(',')
+            .append(createdAt.toString())
+            .append('\n');
+      } else {
+        writer
+            .append("{\"currency\":\"")
+            .append(currency)
+            .append("\",\"seq\":")
+            .append(Long.toString(seq))
+            .append(",\"amount\":")
+            .append(amount)
+            .append(",\"balanceAfter\":")
+            .append(balanceAfter)
+            .append(",\"entryType\":\"")
+            .append(entryType)
+            .append("\",\"rateVersion\":")
+            .append(rate == null ? "null" : rate)
+            .append(",\"createdAt\":\"")
+            .append(createdAt.toString())
+            .append("\"}\n");
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
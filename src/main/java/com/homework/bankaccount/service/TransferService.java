@@ -0,0 +1,94 @@
+package com.homework.bankaccount.service;
+
+import com.homework.bankaccount.entities.BalanceEntity;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.LedgerEntryType;
+import com.homework.bankaccount.exception.InsufficientFundsException;
+import com.homework.bankaccount.exception.NotFoundException;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.rates.ExchangeRateService;
+import com.homework.bankaccount.rates.ExchangeRateSnapshot;
+import com.homework.bankaccount.repository.BalanceRepository;
+import com.homework.bankaccount.repository.BankAccountRepository;
+import com.homework.bankaccount.request.TransferRequest;
+import com.homework.bankaccount.response.TransferResponse;
+import jakarta.transaction.Transactional;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Moves money between two accounts in one transaction. When rows are locked, both balances are
+ * locked with one query in ascending id order, so two transfers in opposite directions wait for
+ * each other instead of deadlocking.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransferService {
+
+  private final BankAccountRepository bankAccountRepository;
+  private final BalanceRepository balanceRepository;
+  private final ExchangeRateService exchangeRateService;
+  private final LedgerService ledgerService;
+  private final BalanceCache balanceCache;
+  private final ConcurrencyControl concurrencyControl;
+
+  @Transactional
+  public TransferResponse apply(TransferRequest request) {
+    Long fromAccountId = request.fromAccountId();
+    Long toAccountId = request.toAccountId();
+    Currency fromCurrency = request.currency();
+    Currency toCurrency = request.targetCurrency();
+
+    List<Long> existing =
+        bankAccountRepository.findExistingIds(List.of(fromAccountId, toAccountId));
+    for (Long accountId : List.of(fromAccountId, toAccountId)) {
+      if (!existing.contains(accountId)) {
+        throw new NotFoundException("Bank account not found: " + accountId);
+      }
+    }
+    // Created before locking, so the target row is locked in id order like any other.
+    balanceRepository.createIfMissing(toAccountId, toCurrency.name());
+
+    List<BalanceEntity> balances =
+        concurrencyControl.lockRows(List.of(fromAccountId, toAccountId))
+            ? balanceRepository.findTransferBalancesForUpdate(
+                fromAccountId, fromCurrency, toAccountId, toCurrency)
+            : balanceRepository.findTransferBalances(
+                fromAccountId, fromCurrency, toAccountId, toCurrency);
+    BalanceEntity fromBalance = null;
+    BalanceEntity toBalance = null;
+    for (BalanceEntity balance : balances) {
+      if (balance.getBankAccount().getId().equals(fromAccountId)) {
+        fromBalance = balance;
+      } else {
+        toBalance = balance;
+      }
+    }
+    if (fromBalance == null) {
+      throw new NotFoundException("Currency not found: " + fromCurrency);
+    }
+
+    Money amount = Money.of(request.amount());
+    if (fromBalance.getAmount().isLessThan(amount)) {
+      throw new InsufficientFundsException("Insufficient funds for transfer");
+    }
+    Money credited = amount;
+    Long rateVersion = null;
+    if (fromCurrency != toCurrency) {
+      ExchangeRateSnapshot rates = exchangeRateService.current();
+      credited = rates.convert(amount, fromCurrency, toCurrency);
+      rateVersion = rates.version();
+    }
+
+    fromBalance.setAmount(fromBalance.getAmount().minus(amount));
+    toBalance.setAmount(toBalance.getAmount().plus(credited));
+    ledgerService.record(fromBalance, amount.negate(), LedgerEntryType.TRANSFER_OUT, rateVersion);
+    ledgerService.record(toBalance, credited, LedgerEntryType.TRANSFER_IN, rateVersion);
+    balanceCache.evictAfterCommit(List.of(fromAccountId, toAccountId));
+    return new TransferResponse(
+        fromBalance.getAmount().toBigDecimal(),
+        toBalance.getAmount().toBigDecimal(),
+        credited.toBigDecimal());
+  }
+}
@@ -0,0 +1,76 @@
+package com.homework.bankaccount.config;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.homework.bankaccount.PostgresIntegrationTest;
+import com.homework.bankaccount.jdbc.ChangelogFingerprintStore;
+import java.util.Optional;
+import javax.sql.DataSource;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("prod")
+class LiquibaseConfigIntegrationTest extends PostgresIntegrationTest {
+
+  private static final String MISSING_CHANGELOG = "classpath:/db/changelog/missing.xml";
+
+  @Autowired private DataSource dataSource;
+
+  @Autowired private LiquibaseFingerprintConfig liquibaseFingerprintConfig;
+
+  @Autowired private ApplicationContext applicationContext;
+
+  @Value("${spring.liquibase.change-log}")
+  private String changeLog;
+
+  @Test
+  void shouldStoreFingerprintAfterMigrating() {
+    Optional<String> stored = new ChangelogFingerprintStore(dataSource).find(changeLog);
+
+    assertEquals(Optional.of(currentFingerprint()), stored);
+  }
+
+  @Test
+  void shouldSkipLiquibaseWhenFingerprintIsCurrent() {
+    new ChangelogFingerprintStore(dataSource).save(MISSING_CHANGELOG, currentFingerprint());
+
+    SpringLiquibase liquibase = initialize(MISSING_CHANGELOG);
+
+    assertDoesNotThrow(liquibase::afterPropertiesSet);
+  }
+
+  @Test
+  void shouldRunLiquibaseWhenFingerprintDiffers() {
+    new ChangelogFingerprintStore(dataSource).save(MISSING_CHANGELOG, "stale");
+
+    SpringLiquibase liquibase = initialize(MISSING_CHANGELOG);
+
+    assertThrows(Exception.class, liquibase::afterPropertiesSet);
+  }
+
+  private SpringLiquibase initialize(String changeLog) {
+    SpringLiquibase liquibase = new SpringLiquibase();
+    liquibase.setDataSource(dataSource);
+    liquibase.setChangeLog(changeLog);
+    liquibase.setResourceLoader(new DefaultResourceLoader());
+    BeanPostProcessor postProcessor =
+        LiquibaseConfig.liquibaseFingerprintPostProcessor(
+            applicationContext.getBeanProvider(LiquibaseFingerprintConfig.class));
+    postProcessor.postProcessBeforeInitialization(liquibase, "liquibase");
+    return liquibase;
+  }
+
+  private String currentFingerprint() {
+    return ChangelogFingerprintStore.compute(liquibaseFingerprintConfig.getChangelogFiles());
+  }
+}
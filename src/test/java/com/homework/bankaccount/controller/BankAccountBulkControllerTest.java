@@ -0,0 +1,73 @@
+package com.homework.bankaccount.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
+import com.homework.bankaccount.request.BulkCreateAccountsRequest;
+import com.homework.bankaccount.request.MoneyRequest;
+import com.homework.bankaccount.request.NewAccount;
+import com.homework.bankaccount.response.BulkCreateAccountsResponse;
+import com.homework.bankaccount.service.BankAccountService;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.ObjectMapper;
+
+@WebMvcTest(BankAccountBulkController.class)
+class BankAccountBulkControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockitoBean private BankAccountService bankAccountService;
+
+  @MockitoBean private ExternalSystemRestClient externalSystemRestClient;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void shouldCreateAccountsInBulk() throws Exception {
+    BulkCreateAccountsRequest request =
+        new BulkCreateAccountsRequest(
+            List.of(
+                new NewAccount("a", null),
+                new NewAccount(
+                    "b", List.of(new MoneyRequest(new BigDecimal("10"), Currency.EUR)))));
+    when(bankAccountService.createAccounts(request))
+        .thenReturn(new BulkCreateAccountsResponse(List.of(51L, 52L)));
+
+    mockMvc
+        .perform(
+            post("/api/v1/bankaccount:bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.ids[0]").value(51))
+        .andExpect(jsonPath("$.ids[1]").value(52));
+  }
+
+  @Test
+  void shouldRejectAccountWithoutName() throws Exception {
+    BulkCreateAccountsRequest request =
+        new BulkCreateAccountsRequest(List.of(new NewAccount(" ", null)));
+
+    mockMvc
+        .perform(
+            post("/api/v1/bankaccount:bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest());
+
+    verify(bankAccountService, never()).createAccounts(any());
+  }
+}
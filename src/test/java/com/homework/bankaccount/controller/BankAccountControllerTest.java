@@ -1,19 +1,46 @@
 package com.homework.bankaccount.controller;
 
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.homework.bankaccount.entities.BankAccountEntity;
+import com.homework.bankaccount.exception.TooManyRequestsException;
+import com.homework.bankaccount.enums.BatchItemStatus;
+import com.homework.bankaccount.enums.BatchMode;
 import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.OperationStatus;
+import com.homework.bankaccount.enums.StatementFormat;
+import com.homework.bankaccount.enums.TransactionType;
 import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.request.BalanceLookupRequest;
+import com.homework.bankaccount.request.BatchTransactionItem;
+import com.homework.bankaccount.request.BatchTransactionRequest;
 import com.homework.bankaccount.request.CreateAccountRequest;
 import com.homework.bankaccount.request.CurrencyExchangeRequest;
 import com.homework.bankaccount.request.MoneyRequest;
+import com.homework.bankaccount.request.TransferRequest;
+import com.homework.bankaccount.response.AccountBalances;
+import com.homework.bankaccount.response.AccountBalancesResponse;
+import com.homework.bankaccount.response.AccountPage;
+import com.homework.bankaccount.response.AccountResponse;
 import com.homework.bankaccount.response.BalanceResponse;
+import com.homework.bankaccount.response.BatchItemResult;
+import com.homework.bankaccount.response.BatchTransactionResponse;
+import com.homework.bankaccount.response.OperationResponse;
+import com.homework.bankaccount.response.TransferResponse;
+import com.homework.bankaccount.service.AsyncDebitService;
+import com.homework.bankaccount.service.BalanceStreamService;
 import com.homework.bankaccount.service.BankAccountService;
+import com.homework.bankaccount.service.StatementService;
 import java.math.BigDecimal;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +48,8 @@ import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import tools.jackson.databind.ObjectMapper;
 
 @WebMvcTest(BankAccountController.class)
@@ -30,6 +59,12 @@ class BankAccountControllerTest {
 
   @MockitoBean private BankAccountService bankAccountService;
 
+  @MockitoBean private AsyncDebitService asyncDebitService;
+
+  @MockitoBean private StatementService statementService;
+
+  @MockitoBean private BalanceStreamService balanceStreamService;
+
   @MockitoBean private ExternalSystemRestClient externalSystemRestClient;
 
   @Autowired private ObjectMapper objectMapper;
@@ -66,7 +101,22 @@ class BankAccountControllerTest {
                 .content(objectMapper.writeValueAsString(moneyRequest)))
         .andExpect(status().isOk());
 
-    verify(bankAccountService).addMoney(1L, moneyRequest);
+    verify(bankAccountService).addMoney(1L, moneyRequest, null);
+  }
+
+  @Test
+  void shouldPassIdempotencyKey() throws Exception {
+    MoneyRequest moneyRequest = new MoneyRequest(new BigDecimal("100"), Currency.EUR);
+
+    mockMvc
+        .perform(
+            post("/api/v1/bankaccount/1/deposit")
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(moneyRequest)))
+        .andExpect(status().isOk());
+
+    verify(bankAccountService).addMoney(1L, moneyRequest, "retry-1");
   }
 
   @Test
@@ -80,24 +130,253 @@ class BankAccountControllerTest {
                 .content(objectMapper.writeValueAsString(moneyRequest)))
         .andExpect(status().isOk());
 
-    verify(bankAccountService).debitMoney(1L, moneyRequest);
+    verify(bankAccountService).debitMoney(1L, moneyRequest, null);
+  }
+
+  @Test
+  void shouldAcceptAsyncDebit() throws Exception {
+    MoneyRequest moneyRequest = new MoneyRequest(new BigDecimal("99"), Currency.EUR);
+    when(asyncDebitService.submit(1L, moneyRequest))
+        .thenReturn(new OperationResponse("op-1", OperationStatus.PENDING, null, null));
+
+    mockMvc
+        .perform(
+            post("/api/v1/bankaccount/1/debit?mode=async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(moneyRequest)))
+        .andExpect(status().isAccepted())
+        .andExpect(header().string("Location", "/api/v1/bankaccount/operations/op-1"))
+        .andExpect(jsonPath("$.status").value("PENDING"));
+
+    verify(bankAccountService, never()).debitMoney(any(), any(), any());
+  }
+
+  @Test
+  void shouldRejectAsyncDebitWhenQueueIsFull() throws Exception {
+    MoneyRequest moneyRequest = new MoneyRequest(new BigDecimal("99"), Currency.EUR);
+    when(asyncDebitService.submit(1L, moneyRequest))
+        .thenThrow(new TooManyRequestsException("Debit queue is full", Duration.ofSeconds(1)));
+
+    mockMvc
+        .perform(
+            post("/api/v1/bankaccount/1/debit?mode=async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(moneyRequest)))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string("Retry-After", "1"));
+  }
+
+  @Test
+  void shouldStreamStatement() throws Exception {
+    Instant from = Instant.parse("2026-01-01T00:00:00Z");
+    Instant to = Instant.parse("2026-02-01T00:00:00Z");
+    doAnswer(
+            invocation -> {
+              OutputStream out = invocation.getArgument(4);
+              out.write("{\"seq\":1}\n".getBytes(StandardCharsets.UTF_8));
+              return null;
+            })
+        .when(statementService)
+        .writeStatement(eq(1L), eq(from), eq(to), eq(StatementFormat.NDJSON), any());
+
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/v1/bankaccount/1/statement?from=" + from + "&to=" + to))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Type", "application/x-ndjson"))
+        .andExpect(content().string("{\"seq\":1}\n"));
+    verify(statementService).checkStatement(1L, from, to);
+  }
+
+  @Test
+  void shouldStreamBalances() throws Exception {
+    SseEmitter emitter = new SseEmitter();
+    emitter.send(SseEmitter.event().id("3").name("balances").data("[]"));
+    emitter.complete();
+    when(balanceStreamService.subscribe(1L)).thenReturn(emitter);
+
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/v1/bankaccount/1/stream").accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(content().string("id:3\nevent:balances\ndata:[]\n\n"));
+  }
+
+  @Test
+  void shouldGetOperation() throws Exception {
+    when(asyncDebitService.getOperation("op-1"))
+        .thenReturn(
+            new OperationResponse(
+                "op-1", OperationStatus.COMPLETED, new BigDecimal("1.0000"), null));
+
+    mockMvc
+        .perform(get("/api/v1/bankaccount/operations/op-1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("COMPLETED"))
+        .andExpect(jsonPath("$.balance").value(1.0));
+  }
+
+  @Test
+  void shouldProcessBatch() throws Exception {
+    BatchTransactionRequest request =
+        new BatchTransactionRequest(
+            BatchMode.BEST_EFFORT,
+            List.of(
+                new BatchTransactionItem(
+                    1L, TransactionType.DEPOSIT, new BigDecimal("10"), Currency.EUR)));
+
+    when(bankAccountService.processBatch(request))
+        .thenReturn(
+            new BatchTransactionResponse(
+                List.of(
+                    new BatchItemResult(
+                        0, BatchItemStatus.APPLIED, new BigDecimal("10.0000"), null))));
+
+    mockMvc
+        .perform(
+            post("/api/v1/bankaccount/transactions:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.results[0].status").value("APPLIED"))
+        .andExpect(jsonPath("$.results[0].balance").value(10.0));
+  }
+
+  @Test
+  void shouldRejectEmptyBatch() throws Exception {
+    BatchTransactionRequest request =
+        new BatchTransactionRequest(BatchMode.BEST_EFFORT, List.of());
+
+    mockMvc
+        .perform(
+            post("/api/v1/bankaccount/transactions:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest());
+
+    verify(bankAccountService, never()).processBatch(any());
+  }
+
+  @Test
+  void shouldTransfer() throws Exception {
+    TransferRequest request =
+        new TransferRequest(1L, 2L, new BigDecimal("10"), Currency.EUR, Currency.USD);
+    when(bankAccountService.transfer(request))
+        .thenReturn(
+            new TransferResponse(
+                new BigDecimal("90.0000"), new BigDecimal("11.0000"), new BigDecimal("11.0000")));
+
+    mockMvc
+        .perform(
+            post("/api/v1/bankaccount/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.fromBalance").value(90.0))
+        .andExpect(jsonPath("$.creditedAmount").value(11.0));
+  }
+
+  @Test
+  void shouldRejectTransferWithoutTarget() throws Exception {
+    mockMvc
+        .perform(
+            post("/api/v1/bankaccount/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromAccountId\":1,\"amount\":10,\"currency\":\"EUR\"}"))
+        .andExpect(status().isBadRequest());
+
+    verify(bankAccountService, never()).transfer(any());
+  }
+
+  @Test
+  void shouldLookupBalances() throws Exception {
+    BalanceLookupRequest request = new BalanceLookupRequest(List.of(1L, 2L));
+    when(bankAccountService.lookupBalances(List.of(1L, 2L)))
+        .thenReturn(
+            List.of(
+                new AccountBalancesResponse(
+                    1L, List.of(new BalanceResponse(new BigDecimal("100"), Currency.EUR))),
+                new AccountBalancesResponse(2L, List.of())));
+
+    mockMvc
+        .perform(
+            post("/api/v1/bankaccount/balances:lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value(1))
+        .andExpect(jsonPath("$[0].balances[0].currency").value("EUR"))
+        .andExpect(jsonPath("$[1].id").value(2))
+        .andExpect(jsonPath("$[1].balances").isEmpty());
+  }
+
+  @Test
+  void shouldRejectEmptyBalanceLookup() throws Exception {
+    mockMvc
+        .perform(
+            post("/api/v1/bankaccount/balances:lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BalanceLookupRequest(List.of()))))
+        .andExpect(status().isBadRequest());
+
+    verify(bankAccountService, never()).lookupBalances(any());
+  }
+
+  @Test
+  void shouldListAccountsAfterCursor() throws Exception {
+    when(bankAccountService.listAccounts(10L, 2))
+        .thenReturn(
+            new AccountPage(
+                List.of(new AccountResponse(11L, "a"), new AccountResponse(12L, "b")), 12L));
+
+    mockMvc
+        .perform(get("/api/v1/bankaccount").param("after_id", "10").param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.accounts[1].name").value("b"))
+        .andExpect(jsonPath("$.nextAfterId").value(12));
   }
 
   @Test
   void shouldGetBalance() throws Exception {
     BalanceResponse balanceResponse = new BalanceResponse(new BigDecimal("100"), Currency.EUR);
 
-    when(bankAccountService.getBalance(1L)).thenReturn(List.of(balanceResponse));
+    when(bankAccountService.getBalance(1L))
+        .thenReturn(new AccountBalances(7L, List.of(balanceResponse)));
 
     mockMvc
         .perform(get("/api/v1/bankaccount/1"))
         .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"7\""))
         .andExpect(jsonPath("$[0].balance").value("100"))
         .andExpect(jsonPath("$[0].currency").value("EUR"));
 
     verify(bankAccountService).getBalance(1L);
   }
 
+  @Test
+  void shouldAnswerNotModifiedWhenETagMatches() throws Exception {
+    when(bankAccountService.getBalance(1L))
+        .thenReturn(
+            new AccountBalances(
+                7L, List.of(new BalanceResponse(new BigDecimal("100"), Currency.EUR))));
+
+    mockMvc
+        .perform(get("/api/v1/bankaccount/1").header("If-None-Match", "\"7\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
   @Test
   void shouldExchangeCurrency() throws Exception {
     CurrencyExchangeRequest currencyExchangeRequest =
@@ -110,6 +389,6 @@ class BankAccountControllerTest {
                 .content(objectMapper.writeValueAsString(currencyExchangeRequest)));
 
     verify(bankAccountService)
-        .exchangeCurrency(1L, Currency.EUR, Currency.USD, new BigDecimal("100"));
+        .exchangeCurrency(1L, Currency.EUR, Currency.USD, Money.parse("100"), null);
   }
 }
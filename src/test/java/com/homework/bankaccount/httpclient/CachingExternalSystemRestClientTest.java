@@ -0,0 +1,121 @@
+package com.homework.bankaccount.httpclient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.homework.bankaccount.exception.ExternalSystemUnavailableException;
+import com.homework.bankaccount.httpclient.response.ExternalSystemResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CachingExternalSystemRestClientTest {
+
+  private final AtomicInteger upstreamCalls = new AtomicInteger();
+  private final AtomicLong now = new AtomicLong();
+
+  @Test
+  void shouldServeVerdictFromCacheWithinTtl() {
+    CachingExternalSystemRestClient client = client(() -> ok());
+
+    client.getExternalSystemResponse();
+    now.addAndGet(Duration.ofMillis(999).toNanos());
+    client.getExternalSystemResponse();
+
+    assertEquals(1, upstreamCalls.get());
+    assertEquals(1, client.getHits());
+    assertEquals(1, client.getMisses());
+  }
+
+  @Test
+  void shouldReloadVerdictAfterTtl() {
+    CachingExternalSystemRestClient client = client(() -> ok());
+
+    client.getExternalSystemResponse();
+    now.addAndGet(Duration.ofSeconds(1).toNanos());
+    client.getExternalSystemResponse();
+
+    assertEquals(2, upstreamCalls.get());
+  }
+
+  @Test
+  void shouldCacheFailuresForFailureTtl() {
+    CachingExternalSystemRestClient client =
+        client(
+            () -> {
+              throw new ExternalSystemUnavailableException("circuit breaker is open");
+            });
+
+    assertThrows(ExternalSystemUnavailableException.class, client::getExternalSystemResponse);
+    assertThrows(ExternalSystemUnavailableException.class, client::getExternalSystemResponse);
+    assertEquals(1, upstreamCalls.get());
+
+    now.addAndGet(Duration.ofMillis(100).toNanos());
+    assertThrows(ExternalSystemUnavailableException.class, client::getExternalSystemResponse);
+    assertEquals(2, upstreamCalls.get());
+  }
+
+  @Test
+  void shouldCoalesceConcurrentCallersIntoOneUpstreamCall() throws Exception {
+    int callers = 1_000;
+    CountDownLatch upstreamEntered = new CountDownLatch(1);
+    CountDownLatch upstreamFinish = new CountDownLatch(1);
+    CachingExternalSystemRestClient client =
+        client(
+            () -> {
+              upstreamEntered.countDown();
+              upstreamFinish.await();
+              return ok();
+            });
+
+    ExecutorService executor = Executors.newFixedThreadPool(64);
+    List<Future<ExternalSystemResponse>> futures = new ArrayList<>();
+    for (int i = 0; i < callers; i++) {
+      futures.add(executor.submit(client::getExternalSystemResponse));
+    }
+    upstreamEntered.await(5, TimeUnit.SECONDS);
+    Thread.sleep(200);
+    upstreamFinish.countDown();
+
+    for (Future<ExternalSystemResponse> future : futures) {
+      assertEquals(200, future.get(5, TimeUnit.SECONDS).getCode());
+    }
+    executor.shutdown();
+
+    assertEquals(1, upstreamCalls.get());
+    assertEquals(1, client.getMisses());
+    assertEquals(callers - 1, client.getHits() + client.getCoalesced());
+  }
+
+  private CachingExternalSystemRestClient client(Upstream upstream) {
+    ExternalSystemRestClient delegate =
+        () -> {
+          upstreamCalls.incrementAndGet();
+          try {
+            return upstream.call();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalSystemUnavailableException("interrupted");
+          }
+        };
+    return new CachingExternalSystemRestClient(
+        delegate, Duration.ofSeconds(1), Duration.ofMillis(100), now::get);
+  }
+
+  private static ExternalSystemResponse ok() {
+    return new ExternalSystemResponse(200, "OK");
+  }
+
+  @FunctionalInterface
+  private interface Upstream {
+    ExternalSystemResponse call() throws InterruptedException;
+  }
+}
@@ -0,0 +1,163 @@
+package com.homework.bankaccount.httpclient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.homework.bankaccount.config.ExternalSystemConfig;
+import com.homework.bankaccount.config.ExternalSystemRestClientConfig;
+import com.homework.bankaccount.exception.ExternalSystemUnavailableException;
+import com.homework.bankaccount.httpclient.response.ExternalSystemResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ResilientExternalSystemRestClientTest {
+
+  private final AtomicInteger requests = new AtomicInteger();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private volatile int status = 200;
+  private volatile long delayMillis;
+
+  private HttpServer server;
+  private CloseableHttpClient httpClient;
+  private ExternalSystemConfig externalSystemConfig;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/200", this::handle);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.start();
+
+    externalSystemConfig = new ExternalSystemConfig();
+    externalSystemConfig.setUrl("http://localhost:" + server.getAddress().getPort());
+    externalSystemConfig.setReadTimeout(Duration.ofMillis(300));
+    externalSystemConfig.setFailureThreshold(3);
+    externalSystemConfig.setOpenDuration(Duration.ofMillis(500));
+    externalSystemConfig.setVerdictTtl(Duration.ZERO);
+    externalSystemConfig.setFailureTtl(Duration.ZERO);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    if (httpClient != null) {
+      httpClient.close();
+    }
+    server.stop(0);
+  }
+
+  @Test
+  void shouldReturnResponseFromExternalSystem() {
+    ExternalSystemRestClient client = createClient();
+
+    ExternalSystemResponse response = client.getExternalSystemResponse();
+
+    assertEquals(200, response.getCode());
+    assertEquals("OK", response.getDescription());
+    assertEquals(1, calls("success"));
+  }
+
+  @Test
+  void shouldFailWhenExternalSystemDoesNotAnswerInTime() {
+    delayMillis = 1_000;
+    ExternalSystemRestClient client = createClient();
+
+    assertThrows(ExternalSystemUnavailableException.class, client::getExternalSystemResponse);
+  }
+
+  @Test
+  void shouldFailFastWhileCircuitIsOpen() throws InterruptedException {
+    status = 503;
+    ExternalSystemRestClient client = createClient();
+
+    for (int i = 0; i < 3; i++) {
+      assertThrows(ExternalSystemUnavailableException.class, client::getExternalSystemResponse);
+    }
+    assertThrows(ExternalSystemUnavailableException.class, client::getExternalSystemResponse);
+    assertEquals(3, requests.get());
+    assertEquals(3, calls("failure"));
+    assertEquals(1, calls("circuit_open"));
+
+    status = 200;
+    Thread.sleep(600);
+    assertEquals(200, client.getExternalSystemResponse().getCode());
+    assertEquals(4, requests.get());
+  }
+
+  @Test
+  void shouldRejectCallsAboveConcurrencyLimit() throws Exception {
+    CountDownLatch entered = new CountDownLatch(2);
+    CountDownLatch finish = new CountDownLatch(1);
+    ExternalSystemRestClient blockingClient =
+        () -> {
+          entered.countDown();
+          try {
+            finish.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return new ExternalSystemResponse(200, "OK");
+        };
+    ExternalSystemRestClient client =
+        new ResilientExternalSystemRestClient(
+            blockingClient, new CircuitBreaker(3, Duration.ofSeconds(1)), 2, meterRegistry);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    Future<ExternalSystemResponse> first = executor.submit(client::getExternalSystemResponse);
+    Future<ExternalSystemResponse> second = executor.submit(client::getExternalSystemResponse);
+    assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+    assertThrows(ExternalSystemUnavailableException.class, client::getExternalSystemResponse);
+    assertEquals(1, calls("bulkhead_rejected"));
+
+    finish.countDown();
+    assertEquals(200, first.get(5, TimeUnit.SECONDS).getCode());
+    assertEquals(200, second.get(5, TimeUnit.SECONDS).getCode());
+    executor.shutdown();
+  }
+
+  private ExternalSystemRestClient createClient() {
+    ExternalSystemRestClientConfig config =
+        new ExternalSystemRestClientConfig(externalSystemConfig);
+    httpClient = config.externalSystemHttpClient();
+    return config.externalSystemRestClient(httpClient, meterRegistry);
+  }
+
+  private long calls(String outcome) {
+    return meterRegistry.get("external.system.calls").tag("outcome", outcome).timer().count();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    try {
+      Thread.sleep(delayMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    byte[] body =
+        ("{\"code\":" + status + ",\"description\":\"" + (status == 200 ? "OK" : "Unavailable")
+                + "\"}")
+            .getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+}
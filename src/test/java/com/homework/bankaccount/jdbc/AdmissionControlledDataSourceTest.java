@@ -0,0 +1,59 @@
+package com.homework.bankaccount.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class AdmissionControlledDataSourceTest {
+
+  private final DataSource target = mock(DataSource.class);
+  private final Connection connection = mock(Connection.class);
+
+  @Test
+  void shouldReleasePermitWhenConnectionIsClosed() throws SQLException {
+    when(target.getConnection()).thenReturn(connection);
+    AdmissionControlledDataSource dataSource =
+        new AdmissionControlledDataSource(target, 1, Duration.ofMillis(50));
+
+    Connection first = dataSource.getConnection();
+    assertEquals(0, dataSource.getAvailablePermits());
+    first.close();
+    first.close();
+
+    assertEquals(1, dataSource.getAvailablePermits());
+    verify(connection, times(1)).close();
+  }
+
+  @Test
+  void shouldTimeOutWhenAllPermitsAreTaken() throws SQLException {
+    when(target.getConnection()).thenReturn(connection);
+    AdmissionControlledDataSource dataSource =
+        new AdmissionControlledDataSource(target, 1, Duration.ofMillis(50));
+
+    dataSource.getConnection();
+
+    assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    verify(target, times(1)).getConnection();
+  }
+
+  @Test
+  void shouldReleasePermitWhenPoolFails() throws SQLException {
+    when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+    AdmissionControlledDataSource dataSource =
+        new AdmissionControlledDataSource(target, 1, Duration.ofMillis(50));
+
+    assertThrows(SQLException.class, dataSource::getConnection);
+
+    assertEquals(1, dataSource.getAvailablePermits());
+  }
+}
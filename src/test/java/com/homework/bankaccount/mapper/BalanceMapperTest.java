@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import com.homework.bankaccount.entities.BalanceEntity;
 import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.money.Money;
 import com.homework.bankaccount.response.BalanceResponse;
 import java.math.BigDecimal;
 import org.junit.jupiter.api.Test;
@@ -14,13 +15,13 @@ class BalanceMapperTest {
   @Test
   void shouldMapToResponse() {
     BalanceEntity balanceEntity = new BalanceEntity();
-    balanceEntity.setAmount(new BigDecimal("100"));
+    balanceEntity.setAmount(Money.parse("100"));
     balanceEntity.setId(1L);
     balanceEntity.setCurrency(Currency.EUR);
 
     BalanceResponse balanceResponse = balanceMapper.toResponse(balanceEntity);
 
-    assertEquals(new BigDecimal("100"), balanceResponse.balance());
+    assertEquals(new BigDecimal("100.0000"), balanceResponse.balance());
     assertEquals(Currency.EUR, balanceResponse.currency());
   }
 }
@@ -0,0 +1,50 @@
+package com.homework.bankaccount.money;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+  @Test
+  void shouldRoundHalfUpToFourDecimals() {
+    assertEquals(1_234_568L, Money.parse("123.45675").units());
+    assertEquals(-1_234_568L, Money.parse("-123.45675").units());
+    assertEquals(new BigDecimal("0.0100"), Money.parse("0.01").toBigDecimal());
+  }
+
+  @Test
+  void shouldAddAndSubtract() {
+    Money balance = Money.parse("100").plus(Money.parse("0.5")).minus(Money.parse("30.25"));
+
+    assertEquals(Money.parse("70.25"), balance);
+    assertTrue(balance.isLessThan(Money.parse("70.2501")));
+  }
+
+  @Test
+  void shouldThrowOnOverflow() {
+    Money max = Money.ofUnits(Long.MAX_VALUE);
+
+    assertThrows(ArithmeticException.class, () -> max.plus(Money.ofUnits(1)));
+    assertThrows(ArithmeticException.class, () -> Money.ofUnits(Long.MIN_VALUE).negate());
+    assertThrows(ArithmeticException.class, () -> Money.parse("1000000000000000"));
+  }
+
+  @Test
+  void shouldMultiplyByRatioRoundingHalfUp() {
+    // 10 USD at 0.85 EUR to GBP at 1.15 EUR
+    assertEquals(Money.parse("7.3913"), Money.parse("10").multiplyRatio(8_500, 11_500));
+    assertEquals(Money.parse("-7.3913"), Money.parse("-10").multiplyRatio(8_500, 11_500));
+    assertEquals(Money.ofUnits(1), Money.ofUnits(1).multiplyRatio(1, 2));
+  }
+
+  @Test
+  void shouldMultiplyByRatioBeyondLongRange() {
+    Money amount = Money.parse("800000000000000");
+
+    assertEquals(Money.parse("400000000000000"), amount.multiplyRatio(10_000, 20_000));
+  }
+}
@@ -0,0 +1,50 @@
+package com.homework.bankaccount.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.LedgerEntryType;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+class FileBalanceEventSinkTest {
+
+  private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+  @TempDir private Path dir;
+
+  @Test
+  void shouldAppendEventsAndReportLastPositionAfterReopening() throws IOException {
+    Path file = dir.resolve("events.ndjson");
+    FileBalanceEventSink sink = new FileBalanceEventSink(file, jsonMapper);
+    assertTrue(sink.lastPosition().isEmpty());
+
+    sink.publish(List.of(event(1), event(2)));
+    sink.publish(List.of(event(3)));
+
+    assertEquals(3, Files.readAllLines(file).size());
+    assertEquals(OptionalLong.of(3), new FileBalanceEventSink(file, jsonMapper).lastPosition());
+  }
+
+  private static BalanceEvent event(long position) {
+    return new BalanceEvent(
+        position,
+        1L,
+        Currency.EUR,
+        position,
+        new BigDecimal("1.0000"),
+        new BigDecimal(position),
+        LedgerEntryType.DEPOSIT,
+        null,
+        Instant.parse("2026-10-18T00:00:00Z"));
+  }
+}
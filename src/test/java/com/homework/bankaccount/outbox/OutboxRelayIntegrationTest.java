@@ -0,0 +1,144 @@
+package com.homework.bankaccount.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.homework.bankaccount.PostgresIntegrationTest;
+import com.homework.bankaccount.config.OutboxConfig;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.LedgerEntryType;
+import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
+import com.homework.bankaccount.httpclient.response.ExternalSystemResponse;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.request.MoneyRequest;
+import com.homework.bankaccount.service.BankAccountService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = "bankaccount.outbox.sink=MEMORY")
+class OutboxRelayIntegrationTest extends PostgresIntegrationTest {
+
+  @Autowired private BankAccountService bankAccountService;
+
+  @Autowired private OutboxRelay outboxRelay;
+
+  @Autowired private BalanceEventSink balanceEventSink;
+
+  @Autowired private OutboxConfig outboxConfig;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  @MockitoBean private ExternalSystemRestClient externalSystemRestClient;
+
+  @BeforeEach
+  void setUp() {
+    when(externalSystemRestClient.getExternalSystemResponse())
+        .thenReturn(new ExternalSystemResponse(200, "OK"));
+  }
+
+  @Test
+  void shouldPublishEveryBalanceChangeInOrder() {
+    Long accountId = bankAccountService.createAccount("events").getId();
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("100"), Currency.EUR));
+    bankAccountService.debitMoney(accountId, new MoneyRequest(new BigDecimal("30"), Currency.EUR));
+    bankAccountService.exchangeCurrency(accountId, Currency.EUR, Currency.USD, Money.parse("20"));
+
+    outboxRelay.relay();
+
+    InMemoryBalanceEventSink sink = (InMemoryBalanceEventSink) balanceEventSink;
+    List<BalanceEvent> events = eventsFor(sink.getEvents(), accountId);
+    assertEquals(
+        List.of(
+            LedgerEntryType.DEPOSIT,
+            LedgerEntryType.DEBIT,
+            LedgerEntryType.EXCHANGE_OUT,
+            LedgerEntryType.EXCHANGE_IN),
+        events.stream().map(BalanceEvent::entryType).toList());
+    assertEquals(new BigDecimal("70.0000"), events.get(1).balanceAfter());
+    assertEquals(List.of(1L, 2L, 3L), seqs(events, Currency.EUR));
+    for (int i = 1; i < events.size(); i++) {
+      assertTrue(events.get(i).position() > events.get(i - 1).position());
+    }
+
+    int before = sink.getEvents().size();
+    outboxRelay.relay();
+    assertEquals(before, sink.getEvents().size());
+  }
+
+  @Test
+  void shouldRedeliverAfterSinkFailure() {
+    outboxRelay.relay();
+    FlakySink flaky = new FlakySink();
+    OutboxRelay relay = relay(flaky);
+    Long accountId = bankAccountService.createAccount("flaky").getId();
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("10"), Currency.EUR));
+
+    flaky.failBeforeStoring = true;
+    assertThrows(IllegalStateException.class, relay::relay);
+    flaky.failBeforeStoring = false;
+    relay.relay();
+
+    assertEquals(1, eventsFor(flaky.getEvents(), accountId).size());
+  }
+
+  @Test
+  void shouldResumeAfterLastPositionStoredBySink() {
+    outboxRelay.relay();
+    FlakySink flaky = new FlakySink();
+    Long accountId = bankAccountService.createAccount("resumed").getId();
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("10"), Currency.EUR));
+
+    flaky.failAfterStoring = true;
+    assertThrows(IllegalStateException.class, relay(flaky)::relay);
+    flaky.failAfterStoring = false;
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("5"), Currency.EUR));
+    relay(flaky).relay();
+
+    assertEquals(List.of(1L, 2L), seqs(eventsFor(flaky.getEvents(), accountId), Currency.EUR));
+  }
+
+  private OutboxRelay relay(BalanceEventSink sink) {
+    return new OutboxRelay(
+        jdbcTemplate, transactionTemplate, sink, outboxConfig, new SimpleMeterRegistry());
+  }
+
+  private static List<BalanceEvent> eventsFor(List<BalanceEvent> events, Long accountId) {
+    return events.stream().filter(event -> event.bankAccountId().equals(accountId)).toList();
+  }
+
+  private static List<Long> seqs(List<BalanceEvent> events, Currency currency) {
+    return events.stream()
+        .filter(event -> event.currency() == currency)
+        .map(BalanceEvent::seq)
+        .toList();
+  }
+
+  private static class FlakySink extends InMemoryBalanceEventSink {
+
+    private boolean failBeforeStoring;
+    private boolean failAfterStoring;
+
+    @Override
+    public synchronized void publish(List<BalanceEvent> events) {
+      if (failBeforeStoring) {
+        throw new IllegalStateException("Sink unavailable");
+      }
+      super.publish(events);
+      if (failAfterStoring) {
+        throw new IllegalStateException("Relay stopped before acknowledging");
+      }
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.homework.bankaccount.rates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.homework.bankaccount.entities.ExchangeRateSnapshotEntity;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.repository.ExchangeRateSnapshotRepository;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateServiceTest {
+  @Mock private ExchangeRateProvider exchangeRateProvider;
+  @Mock private ExchangeRateSnapshotRepository exchangeRateSnapshotRepository;
+  @Mock private PlatformTransactionManager transactionManager;
+  @InjectMocks private ExchangeRateService exchangeRateService;
+
+  private final Map<Currency, BigDecimal> rates =
+      new EnumMap<>(new StubExchangeRateProvider().loadRatesToEur());
+
+  @Test
+  void shouldReuseStoredVersionWhenRatesAreUnchanged() {
+    when(exchangeRateProvider.loadRatesToEur()).thenReturn(rates);
+    when(exchangeRateSnapshotRepository.findFirstByOrderByVersionDesc())
+        .thenReturn(Optional.of(stored(4L, ExchangeRateSnapshot.encode(rates))));
+
+    ExchangeRateSnapshot snapshot = exchangeRateService.current();
+    exchangeRateService.refresh();
+
+    assertEquals(4L, snapshot.version());
+    assertSame(snapshot, exchangeRateService.current());
+    verify(exchangeRateSnapshotRepository, never()).save(any());
+  }
+
+  @Test
+  void shouldPublishNewVersionWhenRatesChange() {
+    Map<Currency, BigDecimal> changed = new EnumMap<>(rates);
+    changed.put(Currency.USD, new BigDecimal("0.86"));
+    when(exchangeRateProvider.loadRatesToEur()).thenReturn(rates, changed);
+    when(exchangeRateSnapshotRepository.findFirstByOrderByVersionDesc())
+        .thenReturn(Optional.empty(), Optional.of(stored(1L, ExchangeRateSnapshot.encode(rates))));
+    when(exchangeRateSnapshotRepository.save(any()))
+        .thenReturn(stored(1L, ""), stored(2L, ""));
+
+    assertEquals(1L, exchangeRateService.current().version());
+    exchangeRateService.refresh();
+
+    assertEquals(2L, exchangeRateService.current().version());
+    assertEquals(
+        new BigDecimal("0.86"), exchangeRateService.current().ratesToEur().get(Currency.USD));
+    verify(exchangeRateSnapshotRepository, times(2)).save(any());
+  }
+
+  @Test
+  void shouldStoreSnapshotInItsOwnTransactionOnStartup() {
+    when(exchangeRateProvider.loadRatesToEur()).thenReturn(rates);
+    when(exchangeRateSnapshotRepository.findFirstByOrderByVersionDesc())
+        .thenReturn(Optional.empty());
+    when(exchangeRateSnapshotRepository.save(any())).thenReturn(stored(1L, ""));
+
+    exchangeRateService.loadOnStartup();
+
+    assertEquals(1L, exchangeRateService.current().version());
+    verify(transactionManager)
+        .getTransaction(
+            argThat(
+                definition ->
+                    definition.getPropagationBehavior()
+                        == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+    verify(exchangeRateProvider).loadRatesToEur();
+  }
+
+  @Test
+  void shouldKeepPreviousSnapshotWhenRefreshFails() {
+    when(exchangeRateProvider.loadRatesToEur())
+        .thenReturn(rates)
+        .thenThrow(new IllegalStateException("rates unavailable"));
+    when(exchangeRateSnapshotRepository.findFirstByOrderByVersionDesc())
+        .thenReturn(Optional.empty());
+    when(exchangeRateSnapshotRepository.save(any())).thenReturn(stored(1L, ""));
+
+    ExchangeRateSnapshot snapshot = exchangeRateService.current();
+
+    assertThrows(IllegalStateException.class, () -> exchangeRateService.refresh());
+    assertSame(snapshot, exchangeRateService.current());
+  }
+
+  private static ExchangeRateSnapshotEntity stored(Long version, String rates) {
+    ExchangeRateSnapshotEntity entity = new ExchangeRateSnapshotEntity();
+    entity.setVersion(version);
+    entity.setRates(rates);
+    return entity;
+  }
+}
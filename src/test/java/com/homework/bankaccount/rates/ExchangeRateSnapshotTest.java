@@ -0,0 +1,56 @@
+package com.homework.bankaccount.rates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.money.Money;
+import java.math.BigDecimal;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ExchangeRateSnapshotTest {
+
+  private final ExchangeRateSnapshot rates =
+      ExchangeRateSnapshot.of(1L, new StubExchangeRateProvider().loadRatesToEur());
+
+  @Test
+  void shouldConvertThroughPrecomputedCrossRates() {
+    assertEquals(Money.parse("8.5"), rates.convert(Money.parse("10"), Currency.USD, Currency.EUR));
+    assertEquals(Money.parse("10"), rates.convert(Money.parse("8.5"), Currency.EUR, Currency.USD));
+    // 100 SEK * 0.094 / 1.15 = 8.173913...
+    assertEquals(
+        Money.parse("8.1739"), rates.convert(Money.parse("100"), Currency.SEK, Currency.GBP));
+    assertEquals(Money.parse("10"), rates.convert(Money.parse("10"), Currency.GBP, Currency.GBP));
+  }
+
+  @Test
+  void shouldEncodeRatesCanonically() {
+    assertEquals("EUR=1;USD=0.85;SEK=0.094;GBP=1.15", rates.encodedRates());
+    assertEquals(
+        rates.encodedRates(),
+        ExchangeRateSnapshot.encode(
+            Map.of(
+                Currency.GBP, new BigDecimal("1.1500"),
+                Currency.SEK, new BigDecimal("0.094"),
+                Currency.USD, new BigDecimal("0.850"),
+                Currency.EUR, new BigDecimal("1.0"))));
+  }
+
+  @Test
+  void shouldRejectMissingOrNonPositiveRates() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ExchangeRateSnapshot.of(2L, Map.of(Currency.EUR, BigDecimal.ONE)));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            ExchangeRateSnapshot.of(
+                2L,
+                Map.of(
+                    Currency.EUR, BigDecimal.ONE,
+                    Currency.USD, BigDecimal.ZERO,
+                    Currency.SEK, BigDecimal.ONE,
+                    Currency.GBP, BigDecimal.ONE)));
+  }
+}
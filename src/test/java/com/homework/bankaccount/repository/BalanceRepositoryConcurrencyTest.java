@@ -0,0 +1,112 @@
+package com.homework.bankaccount.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import com.homework.bankaccount.PostgresIntegrationTest;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.exception.InsufficientFundsException;
+import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
+import com.homework.bankaccount.httpclient.response.ExternalSystemResponse;
+import com.homework.bankaccount.request.MoneyRequest;
+import com.homework.bankaccount.service.BankAccountService;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest
+class BalanceRepositoryConcurrencyTest extends PostgresIntegrationTest {
+
+  private static final int DEBITS = 500;
+  private static final int THREADS = 32;
+
+  @Autowired private BankAccountService bankAccountService;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @MockitoBean private ExternalSystemRestClient externalSystemRestClient;
+
+  @Test
+  void parallelDebitsShouldNotLoseUpdates() throws Exception {
+    when(externalSystemRestClient.getExternalSystemResponse())
+        .thenReturn(new ExternalSystemResponse(200, "OK"));
+
+    Long accountId = bankAccountService.createAccount("concurrency").getId();
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("300"), Currency.EUR));
+
+    MoneyRequest debit = new MoneyRequest(new BigDecimal("1"), Currency.EUR);
+    AtomicInteger succeeded = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < DEBITS; i++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                try {
+                  bankAccountService.debitMoney(accountId, debit);
+                  succeeded.incrementAndGet();
+                } catch (InsufficientFundsException e) {
+                  rejected.incrementAndGet();
+                }
+                return null;
+              }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(1, TimeUnit.MINUTES);
+    }
+    executor.shutdown();
+
+    assertEquals(300, succeeded.get());
+    assertEquals(DEBITS - 300, rejected.get());
+    assertEquals(new BigDecimal("0.0000"), balanceOf(accountId, Currency.EUR));
+  }
+
+  @Test
+  void parallelDepositsShouldNotLoseUpdates() throws Exception {
+    Long accountId = bankAccountService.createAccount("deposits").getId();
+    MoneyRequest deposit = new MoneyRequest(new BigDecimal("0.5"), Currency.USD);
+    CountDownLatch start = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < DEBITS; i++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                return bankAccountService.addMoney(accountId, deposit);
+              }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(1, TimeUnit.MINUTES);
+    }
+    executor.shutdown();
+
+    assertEquals(new BigDecimal("250.0000"), balanceOf(accountId, Currency.USD));
+  }
+
+  private BigDecimal balanceOf(Long accountId, Currency currency) {
+    return jdbcTemplate.queryForObject(
+        "SELECT amount FROM balance WHERE bank_account_id = ? AND currency = ?",
+        BigDecimal.class,
+        accountId,
+        currency.name());
+  }
+}
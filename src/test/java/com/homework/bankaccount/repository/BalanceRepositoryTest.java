@@ -0,0 +1,65 @@
+package com.homework.bankaccount.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.homework.bankaccount.PostgresIntegrationTest;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.request.MoneyRequest;
+import com.homework.bankaccount.service.BankAccountService;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest
+class BalanceRepositoryTest extends PostgresIntegrationTest {
+
+  @Autowired private BankAccountService bankAccountService;
+
+  @Autowired private BalanceRepository balanceRepository;
+
+  @MockitoBean private ExternalSystemRestClient externalSystemRestClient;
+
+  @Test
+  void shouldProjectBalancesWithLedgerSequence() {
+    Long accountId = bankAccountService.createAccount("projection").getId();
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("10"), Currency.EUR));
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("5"), Currency.EUR));
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("1"), Currency.SEK));
+
+    assertEquals(
+        List.of(
+            new BalanceView(Money.parse("15"), Currency.EUR, 2L),
+            new BalanceView(Money.parse("1"), Currency.SEK, 1L)),
+        balanceRepository.findBalanceViews(accountId));
+  }
+
+  @Test
+  void shouldDistinguishEmptyFromMissingAccount() {
+    Long accountId = bankAccountService.createAccount("empty").getId();
+
+    assertEquals(
+        List.of(new BalanceView(null, null, null)),
+        balanceRepository.findBalanceViews(accountId));
+    assertEquals(List.of(), balanceRepository.findBalanceViews(Long.MAX_VALUE));
+  }
+
+  @Test
+  void shouldProjectBalancesOfSeveralAccountsInOneQuery() {
+    Long first = bankAccountService.createAccount("first").getId();
+    Long second = bankAccountService.createAccount("second").getId();
+    bankAccountService.addMoney(first, new MoneyRequest(new BigDecimal("10"), Currency.EUR));
+    bankAccountService.addMoney(first, new MoneyRequest(new BigDecimal("2"), Currency.SEK));
+
+    assertEquals(
+        List.of(
+            new AccountBalanceView(first, Money.parse("10"), Currency.EUR),
+            new AccountBalanceView(first, Money.parse("2"), Currency.SEK),
+            new AccountBalanceView(second, null, null)),
+        balanceRepository.findAccountBalanceViews(List.of(second, Long.MAX_VALUE, first)));
+  }
+}
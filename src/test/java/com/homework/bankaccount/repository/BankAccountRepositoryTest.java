@@ -0,0 +1,66 @@
+package com.homework.bankaccount.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.homework.bankaccount.PostgresIntegrationTest;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
+import com.homework.bankaccount.request.BulkCreateAccountsRequest;
+import com.homework.bankaccount.request.MoneyRequest;
+import com.homework.bankaccount.request.NewAccount;
+import com.homework.bankaccount.response.AccountResponse;
+import com.homework.bankaccount.response.BalanceResponse;
+import com.homework.bankaccount.service.BankAccountService;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest
+class BankAccountRepositoryTest extends PostgresIntegrationTest {
+
+  @Autowired private BankAccountService bankAccountService;
+
+  @Autowired private BankAccountRepository bankAccountRepository;
+
+  @MockitoBean private ExternalSystemRestClient externalSystemRestClient;
+
+  @Test
+  void shouldPageAccountsByKeyset() {
+    Long first = bankAccountService.createAccount("first").getId();
+    Long second = bankAccountService.createAccount("second").getId();
+    Long third = bankAccountService.createAccount("third").getId();
+
+    assertEquals(
+        List.of(new AccountResponse(second, "second"), new AccountResponse(third, "third")),
+        bankAccountRepository.findPageAfter(first, Limit.of(2)));
+    assertEquals(List.of(), bankAccountRepository.findPageAfter(third, Limit.of(2)));
+  }
+
+  @Test
+  void shouldCreateAccountsInBulkWithIdsInRequestOrder() {
+    List<NewAccount> accounts = new ArrayList<>();
+    for (int i = 0; i < 120; i++) {
+      accounts.add(
+          new NewAccount(
+              "bulk-" + i, List.of(new MoneyRequest(BigDecimal.valueOf(i + 1), Currency.EUR))));
+    }
+
+    List<Long> ids =
+        bankAccountService.createAccounts(new BulkCreateAccountsRequest(accounts)).ids();
+
+    assertEquals(120, ids.size());
+    for (int i = 1; i < ids.size(); i++) {
+      assertTrue(ids.get(i) > ids.get(i - 1));
+    }
+    assertEquals("bulk-119", bankAccountRepository.findById(ids.getLast()).orElseThrow().getName());
+    assertEquals(
+        List.of(new BalanceResponse(new BigDecimal("120.0000"), Currency.EUR)),
+        bankAccountService.getBalance(ids.getLast()).balances());
+  }
+}
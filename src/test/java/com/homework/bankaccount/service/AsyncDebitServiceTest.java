@@ -0,0 +1,114 @@
+package com.homework.bankaccount.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.homework.bankaccount.config.AsyncDebitConfig;
+import com.homework.bankaccount.engine.ShardedBalanceEngine;
+import com.homework.bankaccount.enums.BatchItemStatus;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.OperationStatus;
+import com.homework.bankaccount.exception.TooManyRequestsException;
+import com.homework.bankaccount.request.BatchTransactionRequest;
+import com.homework.bankaccount.request.MoneyRequest;
+import com.homework.bankaccount.response.BatchItemResult;
+import com.homework.bankaccount.response.BatchTransactionResponse;
+import com.homework.bankaccount.response.OperationResponse;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class AsyncDebitServiceTest {
+
+  private static final MoneyRequest DEBIT = new MoneyRequest(BigDecimal.TEN, Currency.EUR);
+
+  private final BankAccountService bankAccountService = mock(BankAccountService.class);
+  private final AsyncDebitConfig config = new AsyncDebitConfig();
+  private AsyncDebitService asyncDebitService;
+
+  @AfterEach
+  void tearDown() {
+    asyncDebitService.stop();
+  }
+
+  @Test
+  void shouldSettleQueuedDebitsInOneBatch() throws InterruptedException {
+    config.setLinger(Duration.ofMillis(200));
+    when(bankAccountService.processBatch(any()))
+        .thenAnswer(
+            invocation -> {
+              BatchTransactionRequest request = invocation.getArgument(0);
+              return new BatchTransactionResponse(
+                  IntStream.range(0, request.items().size())
+                      .mapToObj(
+                          i ->
+                              i == 0
+                                  ? new BatchItemResult(
+                                      i, BatchItemStatus.APPLIED, new BigDecimal("90"), null)
+                                  : new BatchItemResult(
+                                      i, BatchItemStatus.REJECTED, null, "Insufficient funds"))
+                      .toList());
+            });
+    start();
+
+    OperationResponse first = asyncDebitService.submit(1L, DEBIT);
+    OperationResponse second = asyncDebitService.submit(2L, DEBIT);
+    assertEquals(OperationStatus.PENDING, first.status());
+
+    assertEquals(OperationStatus.COMPLETED, await(first.id()).status());
+    assertEquals(new BigDecimal("90"), asyncDebitService.getOperation(first.id()).balance());
+    assertEquals("Insufficient funds", await(second.id()).error());
+    verify(bankAccountService, times(1)).processBatch(any());
+  }
+
+  @Test
+  void shouldRejectWhenQueueIsFull() throws InterruptedException {
+    config.setQueueCapacity(1);
+    config.setLinger(Duration.ZERO);
+    CountDownLatch processing = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+    when(bankAccountService.processBatch(any()))
+        .thenAnswer(
+            invocation -> {
+              processing.countDown();
+              finish.await();
+              return new BatchTransactionResponse(
+                  List.of(new BatchItemResult(0, BatchItemStatus.APPLIED, BigDecimal.ONE, null)));
+            });
+    start();
+
+    asyncDebitService.submit(1L, DEBIT);
+    assertTrue(processing.await(5, TimeUnit.SECONDS));
+    asyncDebitService.submit(1L, DEBIT);
+
+    assertThrows(TooManyRequestsException.class, () -> asyncDebitService.submit(1L, DEBIT));
+    finish.countDown();
+  }
+
+  private void start() {
+    asyncDebitService =
+        new AsyncDebitService(bankAccountService, mock(ShardedBalanceEngine.class), config);
+    asyncDebitService.start();
+  }
+
+  private OperationResponse await(String operationId) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    OperationResponse operation = asyncDebitService.getOperation(operationId);
+    while (operation.status() == OperationStatus.PENDING && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+      operation = asyncDebitService.getOperation(operationId);
+    }
+    return operation;
+  }
+}
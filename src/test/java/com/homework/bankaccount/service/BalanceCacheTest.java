@@ -0,0 +1,76 @@
+package com.homework.bankaccount.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.homework.bankaccount.config.BalanceCacheConfig;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.response.AccountBalances;
+import com.homework.bankaccount.response.BalanceResponse;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class BalanceCacheTest {
+
+  private final List<Object> events = new ArrayList<>();
+  private final BalanceCache balanceCache = new BalanceCache(new BalanceCacheConfig(), events::add);
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void shouldEvictOnlyAfterCommit() {
+    balanceCache.get(1L, this::load);
+    TransactionSynchronizationManager.initSynchronization();
+
+    balanceCache.evictAfterCommit(1L);
+    balanceCache.get(1L, this::load);
+    assertEquals(1, loads.get());
+    assertEquals(List.of(), events);
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    balanceCache.get(1L, this::load);
+    assertEquals(2, loads.get());
+    assertEquals(List.of(new BalancesChangedEvent(List.of(1L))), events);
+  }
+
+  @Test
+  void shouldNotEvictWhenTransactionRollsBack() {
+    balanceCache.get(1L, this::load);
+    TransactionSynchronizationManager.initSynchronization();
+
+    balanceCache.evictAfterCommit(1L);
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    balanceCache.get(1L, this::load);
+
+    assertEquals(1, loads.get());
+    assertEquals(List.of(), events);
+  }
+
+  @Test
+  void shouldEvictImmediatelyOutsideTransaction() {
+    balanceCache.get(1L, this::load);
+
+    balanceCache.evictAfterCommit(1L);
+    balanceCache.get(1L, this::load);
+
+    assertEquals(2, loads.get());
+  }
+
+  private AccountBalances load(Long bankAccountId) {
+    loads.incrementAndGet();
+    return new AccountBalances(1L, List.of(new BalanceResponse(BigDecimal.ONE, Currency.EUR)));
+  }
+}
@@ -0,0 +1,88 @@
+package com.homework.bankaccount.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.homework.bankaccount.config.BalanceStreamConfig;
+import com.homework.bankaccount.engine.ShardedBalanceEngine;
+import com.homework.bankaccount.exception.BadRequestException;
+import com.homework.bankaccount.exception.NotFoundException;
+import com.homework.bankaccount.exception.TooManyRequestsException;
+import com.homework.bankaccount.response.AccountBalances;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BalanceStreamServiceTest {
+
+  private final BankAccountService bankAccountService = mock(BankAccountService.class);
+  private final ShardedBalanceEngine shardedBalanceEngine = mock(ShardedBalanceEngine.class);
+  private final BalanceStreamConfig config = new BalanceStreamConfig();
+  private final BalanceStreamService balanceStreamService =
+      new BalanceStreamService(bankAccountService, shardedBalanceEngine, config);
+
+  @BeforeEach
+  void setUp() {
+    when(bankAccountService.getBalance(anyLong())).thenReturn(new AccountBalances(1, List.of()));
+  }
+
+  @Test
+  void shouldLoadEachChangedAccountOncePerPush() {
+    balanceStreamService.subscribe(1L);
+    balanceStreamService.subscribe(1L);
+
+    balanceStreamService.onBalancesChanged(new BalancesChangedEvent(List.of(1L, 2L)));
+    balanceStreamService.onBalancesChanged(new BalancesChangedEvent(List.of(1L)));
+    balanceStreamService.onBalancesChanged(new BalancesChangedEvent(List.of(1L)));
+    balanceStreamService.pushChanges();
+    balanceStreamService.pushChanges();
+
+    verify(bankAccountService, times(3)).getBalance(1L);
+    verify(bankAccountService, never()).getBalance(2L);
+  }
+
+  @Test
+  void shouldPushChangeCommittedWhileLoadingTheFirstSnapshot() {
+    when(bankAccountService.getBalance(1L))
+        .thenAnswer(
+            invocation -> {
+              balanceStreamService.onBalancesChanged(new BalancesChangedEvent(List.of(1L)));
+              return new AccountBalances(1, List.of());
+            });
+
+    balanceStreamService.subscribe(1L);
+    balanceStreamService.pushChanges();
+
+    verify(bankAccountService, times(2)).getBalance(1L);
+  }
+
+  @Test
+  void shouldReleaseSubscriptionWhenAccountDoesNotExist() {
+    when(bankAccountService.getBalance(1L)).thenThrow(new NotFoundException("not found"));
+
+    assertThrows(NotFoundException.class, () -> balanceStreamService.subscribe(1L));
+    assertEquals(0, balanceStreamService.subscriptionCount());
+  }
+
+  @Test
+  void shouldRejectSubscriptionsOverTheLimit() {
+    config.setMaxSubscriptions(1);
+    balanceStreamService.subscribe(1L);
+
+    assertThrows(TooManyRequestsException.class, () -> balanceStreamService.subscribe(2L));
+    assertEquals(1, balanceStreamService.subscriptionCount());
+  }
+
+  @Test
+  void shouldRejectSubscriptionsInShardedMode() {
+    when(shardedBalanceEngine.isEnabled()).thenReturn(true);
+
+    assertThrows(BadRequestException.class, () -> balanceStreamService.subscribe(1L));
+  }
+}
@@ -4,42 +4,95 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.homework.bankaccount.config.BalanceCacheConfig;
+import com.homework.bankaccount.config.ConcurrencyConfig;
+import com.homework.bankaccount.engine.ShardedBalanceEngine;
 import com.homework.bankaccount.entities.BalanceEntity;
 import com.homework.bankaccount.entities.BankAccountEntity;
+import com.homework.bankaccount.enums.BatchMode;
 import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.LedgerEntryType;
+import com.homework.bankaccount.enums.TransactionType;
+import com.homework.bankaccount.exception.BadRequestException;
 import com.homework.bankaccount.exception.ExternalSystemUnavailableException;
 import com.homework.bankaccount.exception.InsufficientFundsException;
 import com.homework.bankaccount.exception.NotFoundException;
 import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
 import com.homework.bankaccount.httpclient.response.ExternalSystemResponse;
 import com.homework.bankaccount.mapper.BalanceMapper;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.rates.ExchangeRateService;
+import com.homework.bankaccount.rates.ExchangeRateSnapshot;
+import com.homework.bankaccount.rates.StubExchangeRateProvider;
+import com.homework.bankaccount.repository.AccountBalanceView;
 import com.homework.bankaccount.repository.BalanceRepository;
+import com.homework.bankaccount.repository.BalanceView;
 import com.homework.bankaccount.repository.BankAccountRepository;
+import com.homework.bankaccount.request.BatchTransactionItem;
+import com.homework.bankaccount.request.BatchTransactionRequest;
+import com.homework.bankaccount.request.BulkCreateAccountsRequest;
 import com.homework.bankaccount.request.MoneyRequest;
+import com.homework.bankaccount.request.NewAccount;
+import com.homework.bankaccount.request.TransferRequest;
+import com.homework.bankaccount.response.AccountBalances;
+import com.homework.bankaccount.response.AccountBalancesResponse;
+import com.homework.bankaccount.response.AccountPage;
+import com.homework.bankaccount.response.AccountResponse;
 import com.homework.bankaccount.response.BalanceResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionOperations;
 
 @ExtendWith(MockitoExtension.class)
 class BankAccountServiceTest {
   @Mock private BankAccountRepository bankAccountRepository;
   @Mock private BalanceRepository balanceRepository;
+  @Mock private FundHoldService fundHoldService;
+  @Mock private BatchTransactionService batchTransactionService;
+  @Mock private TransferService transferService;
+  @Mock private LedgerService ledgerService;
+  @Mock private ShardedBalanceEngine shardedBalanceEngine;
+  @Mock private ExchangeRateService exchangeRateService;
   @Mock private ExternalSystemRestClient externalSystemRestClient;
   @Mock private BalanceMapper balanceMapper;
+  @Mock private IdempotencyService idempotencyService;
+  @Spy private BalanceCache balanceCache = new BalanceCache(new BalanceCacheConfig(), event -> {});
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  @Spy private BankAccountMetrics bankAccountMetrics = new BankAccountMetrics(meterRegistry);
+  @Mock private ConcurrencyControl concurrencyControl;
+
+  @Spy
+  private ConflictRetryExecutor conflictRetryExecutor =
+      new ConflictRetryExecutor(
+          TransactionOperations.withoutTransaction(), new ConcurrencyConfig(), meterRegistry);
+
   @InjectMocks private BankAccountService bankAccountService;
 
+  private final ExchangeRateSnapshot rates =
+      ExchangeRateSnapshot.of(3L, new StubExchangeRateProvider().loadRatesToEur());
   private BankAccountEntity bankAccountEntity;
 
   @BeforeEach
@@ -61,138 +114,362 @@ class BankAccountServiceTest {
   }
 
   @Test
-  void shouldAddMoneyAndCreateBalance() {
+  void createAccountsShouldRejectDuplicateOpeningCurrency() {
+    MoneyRequest eur = new MoneyRequest(BigDecimal.TEN, Currency.EUR);
+    BulkCreateAccountsRequest request =
+        new BulkCreateAccountsRequest(List.of(new NewAccount("dup", List.of(eur, eur))));
+
+    assertThrows(BadRequestException.class, () -> bankAccountService.createAccounts(request));
+
+    verify(balanceRepository, never()).saveAll(any());
+  }
+
+  @Test
+  void shouldAddMoney() {
     MoneyRequest moneyRequest = new MoneyRequest(new BigDecimal("100"), Currency.EUR);
 
-    when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccountEntity));
-    bankAccountService.addMoney(1L, moneyRequest);
+    when(balanceRepository.deposit(1L, "EUR", 1_000_000L, "DEPOSIT")).thenReturn(1_500_000L);
 
-    ArgumentCaptor<BalanceEntity> balanceCaptor = ArgumentCaptor.forClass(BalanceEntity.class);
-    verify(balanceRepository).save(balanceCaptor.capture());
+    Money balance = bankAccountService.addMoney(1L, moneyRequest);
 
-    BalanceEntity savedBalance = balanceCaptor.getValue();
-    assertEquals(Currency.EUR, savedBalance.getCurrency());
-    assertEquals(new BigDecimal("100.0000"), savedBalance.getAmount());
-    assertEquals(bankAccountEntity, savedBalance.getBankAccount());
+    assertEquals(Money.parse("150.0000"), balance);
   }
 
   @Test
-  void shouldAddMoneyToExistingBalance() {
+  void shouldReturnOriginalBalanceForRepeatedIdempotencyKey() {
     MoneyRequest moneyRequest = new MoneyRequest(new BigDecimal("100"), Currency.EUR);
+    when(idempotencyService.claim("key-1", "deposit:1:EUR:100.0000"))
+        .thenReturn(
+            Optional.of(
+                new IdempotentResult("deposit:1:EUR:100.0000", Money.parse("150.0000"))));
 
-    BalanceEntity balance = new BalanceEntity();
-    balance.setCurrency(Currency.EUR);
-    balance.setAmount(new BigDecimal("50"));
-    bankAccountEntity.getBalances().add(balance);
+    Money balance = bankAccountService.addMoney(1L, moneyRequest, "key-1");
 
-    when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccountEntity));
-    bankAccountService.addMoney(1L, moneyRequest);
+    assertEquals(Money.parse("150.0000"), balance);
+    verify(balanceRepository, never()).deposit(any(), any(), anyLong(), any());
+    verify(idempotencyService, never()).complete(any(), any(), any());
+  }
 
-    assertEquals(new BigDecimal("150.0000"), balance.getAmount());
-    verify(balanceRepository).save(balance);
+  @Test
+  void shouldCompleteIdempotencyKeyAfterDeposit() {
+    MoneyRequest moneyRequest = new MoneyRequest(new BigDecimal("100"), Currency.EUR);
+    when(idempotencyService.claim("key-1", "deposit:1:EUR:100.0000")).thenReturn(Optional.empty());
+    when(balanceRepository.deposit(1L, "EUR", 1_000_000L, "DEPOSIT")).thenReturn(1_500_000L);
+
+    bankAccountService.addMoney(1L, moneyRequest, "key-1");
+
+    verify(idempotencyService)
+        .complete("key-1", "deposit:1:EUR:100.0000", Money.parse("150.0000"));
   }
 
   @Test
   void addMoneyShouldThrowNotFoundWhenAccountDoesNotExist() {
     MoneyRequest moneyRequest = new MoneyRequest(new BigDecimal("100"), Currency.EUR);
-    when(bankAccountRepository.findById(1L)).thenReturn(Optional.empty());
+    when(balanceRepository.deposit(1L, "EUR", 1_000_000L, "DEPOSIT"))
+        .thenThrow(
+            new DataIntegrityViolationException(
+                "fk_balance_bank_account", new SQLException("foreign key violation", "23503")));
 
     assertThrows(NotFoundException.class, () -> bankAccountService.addMoney(1L, moneyRequest));
-    verify(balanceRepository, never()).save(any());
+  }
+
+  @Test
+  void addMoneyShouldRethrowNumericOverflow() {
+    MoneyRequest moneyRequest = new MoneyRequest(new BigDecimal("100"), Currency.EUR);
+    when(balanceRepository.deposit(1L, "EUR", 1_000_000L, "DEPOSIT"))
+        .thenThrow(
+            new DataIntegrityViolationException(
+                "numeric field overflow", new SQLException("numeric field overflow", "22003")));
+
+    assertThrows(
+        DataIntegrityViolationException.class,
+        () -> bankAccountService.addMoney(1L, moneyRequest));
   }
 
   @Test
   void shouldDebitMoney() {
     MoneyRequest request = new MoneyRequest(new BigDecimal("50"), Currency.EUR);
 
-    BalanceEntity balance = new BalanceEntity();
-    balance.setCurrency(Currency.EUR);
-    balance.setAmount(new BigDecimal("100"));
-    bankAccountEntity.getBalances().add(balance);
-
     ExternalSystemResponse response = new ExternalSystemResponse(200, "OK");
 
-    when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccountEntity));
+    when(fundHoldService.reserve(1L, Currency.EUR, Money.parse("50.0000")))
+        .thenReturn(new FundHold(7L, Money.parse("50.0000")));
     when(externalSystemRestClient.getExternalSystemResponse()).thenReturn(response);
+    when(fundHoldService.settle(7L)).thenReturn(true);
 
-    bankAccountService.debitMoney(1L, request);
+    Money balance = bankAccountService.debitMoney(1L, request);
 
-    assertEquals(new BigDecimal("50.0000"), balance.getAmount());
-    verify(balanceRepository).save(balance);
+    assertEquals(Money.parse("50.0000"), balance);
+    verify(fundHoldService, never()).release(any());
+    assertEquals(1, timerCount("bankaccount.operation", "outcome", "success"));
+    assertEquals(1, timerCount("bankaccount.operation.phase", "phase", "authorize"));
   }
 
   @Test
-  void debitMoneyShouldThrowNotFoundWhenAccountDoesNotExist() {
-    MoneyRequest request = new MoneyRequest(new BigDecimal("100"), Currency.EUR);
-    when(bankAccountRepository.findById(1L)).thenReturn(Optional.empty());
+  void debitMoneyShouldNotAuthorizeWhenReserveFails() {
+    MoneyRequest request = new MoneyRequest(new BigDecimal("150"), Currency.EUR);
+
+    when(fundHoldService.reserve(1L, Currency.EUR, Money.parse("150.0000")))
+        .thenThrow(new InsufficientFundsException("Insufficient funds for debit"));
 
-    assertThrows(NotFoundException.class, () -> bankAccountService.debitMoney(1L, request));
+    assertThrows(
+        InsufficientFundsException.class, () -> bankAccountService.debitMoney(1L, request));
+    verify(externalSystemRestClient, never()).getExternalSystemResponse();
+    assertEquals(
+        1,
+        meterRegistry
+            .get("bankaccount.operation.failures")
+            .tags("operation", "debit", "reason", "insufficient_funds")
+            .counter()
+            .count());
   }
 
   @Test
-  void debitMoneyShouldThrowNotFoundWhenCurrencyDoesNotExist() {
-    MoneyRequest request = new MoneyRequest(new BigDecimal("100"), Currency.USD);
+  void debitMoneyShouldReleaseHoldWhenExternalSystemUnavailable() {
+    MoneyRequest request = new MoneyRequest(new BigDecimal("50"), Currency.EUR);
 
-    when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccountEntity));
+    ExternalSystemResponse response = new ExternalSystemResponse(500, "Service unavailable");
 
-    assertThrows(NotFoundException.class, () -> bankAccountService.debitMoney(1L, request));
+    when(fundHoldService.reserve(1L, Currency.EUR, Money.parse("50.0000")))
+        .thenReturn(new FundHold(7L, Money.parse("50.0000")));
+    when(externalSystemRestClient.getExternalSystemResponse()).thenReturn(response);
+
+    assertThrows(
+        ExternalSystemUnavailableException.class, () -> bankAccountService.debitMoney(1L, request));
+    verify(fundHoldService).release(7L);
+    verify(fundHoldService, never()).settle(any());
   }
 
   @Test
-  void debitMoneyShouldThrowInsufficientFunds() {
+  void debitMoneyShouldFreeIdempotencyKeyWhenDebitFails() {
     MoneyRequest request = new MoneyRequest(new BigDecimal("150"), Currency.EUR);
+    when(idempotencyService.claim("key-2", "debit:1:EUR:150.0000")).thenReturn(Optional.empty());
+    when(fundHoldService.reserve(1L, Currency.EUR, Money.parse("150.0000")))
+        .thenThrow(new InsufficientFundsException("Insufficient funds for debit"));
+
+    assertThrows(
+        InsufficientFundsException.class,
+        () -> bankAccountService.debitMoney(1L, request, "key-2"));
+    verify(idempotencyService).abandon("key-2");
+    verify(idempotencyService, never()).complete(any(), any(), any());
+  }
 
-    BalanceEntity balance = new BalanceEntity();
-    balance.setCurrency(Currency.EUR);
-    balance.setAmount(new BigDecimal("100"));
-    bankAccountEntity.getBalances().add(balance);
+  @Test
+  void debitMoneyShouldCompleteIdempotencyKeyWhenSettling() {
+    MoneyRequest request = new MoneyRequest(new BigDecimal("50"), Currency.EUR);
+    when(idempotencyService.claim("key-3", "debit:1:EUR:50.0000")).thenReturn(Optional.empty());
+    when(fundHoldService.reserve(1L, Currency.EUR, Money.parse("50.0000")))
+        .thenReturn(new FundHold(7L, Money.parse("50.0000")));
+    when(externalSystemRestClient.getExternalSystemResponse())
+        .thenReturn(new ExternalSystemResponse(200, "OK"));
+    when(fundHoldService.settle(7L, "key-3", "debit:1:EUR:50.0000", Money.parse("50.0000")))
+        .thenReturn(true);
+
+    assertEquals(Money.parse("50.0000"), bankAccountService.debitMoney(1L, request, "key-3"));
+    verify(idempotencyService, never()).complete(any(), any(), any());
+    verify(idempotencyService, never()).abandon(any());
+  }
 
-    when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccountEntity));
+  @Test
+  void debitMoneyShouldFailWhenHoldExpiredBeforeSettlement() {
+    MoneyRequest request = new MoneyRequest(new BigDecimal("50"), Currency.EUR);
+
+    when(fundHoldService.reserve(1L, Currency.EUR, Money.parse("50.0000")))
+        .thenReturn(new FundHold(7L, Money.parse("50.0000")));
+    when(externalSystemRestClient.getExternalSystemResponse())
+        .thenReturn(new ExternalSystemResponse(200, "OK"));
+    when(fundHoldService.settle(7L)).thenReturn(false);
 
     assertThrows(
-        InsufficientFundsException.class, () -> bankAccountService.debitMoney(1L, request));
+        ExternalSystemUnavailableException.class, () -> bankAccountService.debitMoney(1L, request));
   }
 
   @Test
-  void debitMoneyShouldThrowExternalSystemUnavailable() {
-    MoneyRequest request = new MoneyRequest(new BigDecimal("50"), Currency.EUR);
+  void processBatchShouldRejectDebitsWhenExternalSystemIsUnavailableInBestEffortMode() {
+    BatchTransactionRequest request =
+        new BatchTransactionRequest(
+            BatchMode.BEST_EFFORT,
+            List.of(
+                new BatchTransactionItem(
+                    1L, TransactionType.DEBIT, new BigDecimal("10"), Currency.EUR)));
 
-    BalanceEntity balance = new BalanceEntity();
-    balance.setCurrency(Currency.EUR);
-    balance.setAmount(new BigDecimal("100"));
-    bankAccountEntity.getBalances().add(balance);
+    when(externalSystemRestClient.getExternalSystemResponse())
+        .thenReturn(new ExternalSystemResponse(500, "Service unavailable"));
+    when(batchTransactionService.apply(request, "Service unavailable")).thenReturn(List.of());
 
-    ExternalSystemResponse response = new ExternalSystemResponse(500, "Service unavailable");
+    bankAccountService.processBatch(request);
 
-    when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccountEntity));
-    when(externalSystemRestClient.getExternalSystemResponse()).thenReturn(response);
+    verify(batchTransactionService).apply(request, "Service unavailable");
+  }
+
+  @Test
+  void processBatchShouldFailWhenExternalSystemIsUnavailableInAllOrNothingMode() {
+    BatchTransactionRequest request =
+        new BatchTransactionRequest(
+            BatchMode.ALL_OR_NOTHING,
+            List.of(
+                new BatchTransactionItem(
+                    1L, TransactionType.DEBIT, new BigDecimal("10"), Currency.EUR)));
+
+    when(externalSystemRestClient.getExternalSystemResponse())
+        .thenReturn(new ExternalSystemResponse(500, "Service unavailable"));
 
     assertThrows(
-        ExternalSystemUnavailableException.class, () -> bankAccountService.debitMoney(1L, request));
+        ExternalSystemUnavailableException.class, () -> bankAccountService.processBatch(request));
+    verify(batchTransactionService, never()).apply(any(), any());
   }
 
   @Test
-  void shouldGetBalance() {
-    BalanceEntity balance = new BalanceEntity();
-    balance.setCurrency(Currency.EUR);
-    balance.setAmount(new BigDecimal("100"));
-    bankAccountEntity.setBalances(List.of(balance));
+  void shouldRouteOperationsToShardedEngineWhenEnabled() {
+    MoneyRequest request = new MoneyRequest(new BigDecimal("10"), Currency.EUR);
+
+    when(shardedBalanceEngine.isEnabled()).thenReturn(true);
+    when(externalSystemRestClient.getExternalSystemResponse())
+        .thenReturn(new ExternalSystemResponse(200, "OK"));
+    when(shardedBalanceEngine.deposit(1L, Currency.EUR, Money.parse("10.0000")))
+        .thenReturn(Money.parse("10.0000"));
+    when(shardedBalanceEngine.debit(1L, Currency.EUR, Money.parse("10.0000")))
+        .thenReturn(Money.parse("0.0000"));
+
+    assertEquals(Money.parse("10.0000"), bankAccountService.addMoney(1L, request));
+    assertEquals(Money.parse("0.0000"), bankAccountService.debitMoney(1L, request));
+    verify(balanceRepository, never()).deposit(any(), any(), anyLong(), any());
+    verify(fundHoldService, never()).reserve(any(), any(), any());
+  }
 
+  @Test
+  void shardedDebitShouldKeepIdempotencyKeyWhenCompletingFails() {
+    MoneyRequest request = new MoneyRequest(new BigDecimal("10"), Currency.EUR);
+    String description = "debit:1:EUR:10.0000";
+
+    when(shardedBalanceEngine.isEnabled()).thenReturn(true);
+    when(externalSystemRestClient.getExternalSystemResponse())
+        .thenReturn(new ExternalSystemResponse(200, "OK"));
+    when(idempotencyService.claim("key-4", description)).thenReturn(Optional.empty());
+    when(shardedBalanceEngine.debit(1L, Currency.EUR, Money.parse("10.0000")))
+        .thenReturn(Money.parse("0.0000"));
+    doThrow(new DataAccessResourceFailureException("connection lost"))
+        .when(idempotencyService)
+        .complete("key-4", description, Money.parse("0.0000"));
+
+    assertEquals(Money.parse("0.0000"), bankAccountService.debitMoney(1L, request, "key-4"));
+    verify(idempotencyService, never()).abandon(any());
+  }
+
+  @Test
+  void shouldGetBalance() {
+    BalanceView eur = new BalanceView(Money.parse("100"), Currency.EUR, 3L);
+    BalanceView usd = new BalanceView(Money.parse("5"), Currency.USD, 2L);
     BalanceResponse response = new BalanceResponse(new BigDecimal("100"), Currency.EUR);
 
-    when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccountEntity));
-    when(balanceMapper.toResponse(balance)).thenReturn(response);
+    when(balanceRepository.findBalanceViews(1L)).thenReturn(List.of(eur, usd));
+    when(balanceMapper.toResponse(eur)).thenReturn(response);
+    when(balanceMapper.toResponse(usd))
+        .thenReturn(new BalanceResponse(new BigDecimal("5"), Currency.USD));
+
+    AccountBalances results = bankAccountService.getBalance(1L);
+
+    assertEquals(5L, results.version());
+    assertEquals("\"5\"", results.eTag());
+    assertEquals(2, results.balances().size());
+    assertEquals(response, results.balances().getFirst());
+  }
+
+  @Test
+  void shouldGetEmptyBalancesOfAccountWithoutBalances() {
+    when(balanceRepository.findBalanceViews(1L))
+        .thenReturn(List.of(new BalanceView(null, null, null)));
+
+    AccountBalances results = bankAccountService.getBalance(1L);
+
+    assertEquals(new AccountBalances(0L, List.of()), results);
+  }
+
+  @Test
+  void shouldServeBalanceFromCacheUntilItChanges() {
+    when(balanceRepository.findBalanceViews(1L))
+        .thenReturn(List.of(new BalanceView(null, null, null)));
+    when(balanceRepository.deposit(1L, "EUR", 100_000L, "DEPOSIT")).thenReturn(100_000L);
+
+    bankAccountService.getBalance(1L);
+    bankAccountService.getBalance(1L);
+    verify(balanceRepository, times(1)).findBalanceViews(1L);
+
+    bankAccountService.addMoney(1L, new MoneyRequest(BigDecimal.TEN, Currency.EUR));
+    bankAccountService.getBalance(1L);
+    verify(balanceRepository, times(2)).findBalanceViews(1L);
+  }
+
+  @Test
+  void shouldRejectTransferToSameAccount() {
+    TransferRequest request = new TransferRequest(1L, 1L, BigDecimal.TEN, Currency.EUR, null);
+
+    assertThrows(BadRequestException.class, () -> bankAccountService.transfer(request));
+
+    verify(externalSystemRestClient, never()).getExternalSystemResponse();
+    verify(transferService, never()).apply(any());
+  }
+
+  @Test
+  void shouldNotTransferWhenAuthorizationFails() {
+    TransferRequest request = new TransferRequest(1L, 2L, BigDecimal.TEN, Currency.EUR, null);
+    when(externalSystemRestClient.getExternalSystemResponse())
+        .thenReturn(new ExternalSystemResponse(503, "Service Unavailable"));
+
+    assertThrows(
+        ExternalSystemUnavailableException.class, () -> bankAccountService.transfer(request));
+
+    verify(transferService, never()).apply(any());
+    assertEquals(
+        1L,
+        meterRegistry
+            .get("bankaccount.operation")
+            .tags("operation", "transfer", "outcome", "upstream_failure")
+            .timer()
+            .count());
+  }
+
+  @Test
+  void shouldGroupLookedUpBalancesByAccount() {
+    AccountBalanceView eur = new AccountBalanceView(1L, Money.parse("100"), Currency.EUR);
+    AccountBalanceView usd = new AccountBalanceView(1L, Money.parse("5"), Currency.USD);
+    BalanceResponse eurResponse = new BalanceResponse(new BigDecimal("100"), Currency.EUR);
+    BalanceResponse usdResponse = new BalanceResponse(new BigDecimal("5"), Currency.USD);
+
+    when(balanceRepository.findAccountBalanceViews(Set.of(1L, 2L, 3L)))
+        .thenReturn(List.of(eur, usd, new AccountBalanceView(2L, null, null)));
+    when(balanceMapper.toResponse(eur)).thenReturn(eurResponse);
+    when(balanceMapper.toResponse(usd)).thenReturn(usdResponse);
+
+    assertEquals(
+        List.of(
+            new AccountBalancesResponse(1L, List.of(eurResponse, usdResponse)),
+            new AccountBalancesResponse(2L, List.of())),
+        bankAccountService.lookupBalances(List.of(3L, 1L, 2L, 1L)));
+  }
 
-    List<BalanceResponse> results = bankAccountService.getBalance(1L);
+  @Test
+  void shouldReturnNextCursorOnlyForFullPage() {
+    List<AccountResponse> page =
+        List.of(new AccountResponse(4L, "a"), new AccountResponse(7L, "b"));
+    when(bankAccountRepository.findPageAfter(3L, Limit.of(2))).thenReturn(page);
+    when(bankAccountRepository.findPageAfter(3L, Limit.of(3))).thenReturn(page);
+
+    assertEquals(new AccountPage(page, 7L), bankAccountService.listAccounts(3L, 2));
+    assertEquals(new AccountPage(page, null), bankAccountService.listAccounts(3L, 3));
+  }
 
-    assertEquals(1, results.size());
-    assertEquals(Currency.EUR, results.getFirst().currency());
-    assertEquals(new BigDecimal("100"), results.getFirst().balance());
+  @Test
+  void shouldRejectPageSizeOutOfRange() {
+    assertThrows(BadRequestException.class, () -> bankAccountService.listAccounts(0L, 0));
+    assertThrows(
+        BadRequestException.class,
+        () -> bankAccountService.listAccounts(0L, BankAccountService.MAX_PAGE_SIZE + 1));
   }
 
   @Test
   void getBalanceShouldThrowNotFoundWhenAccountDoesNotExist() {
-    when(bankAccountRepository.findById(1L)).thenReturn(Optional.empty());
+    when(balanceRepository.findBalanceViews(1L)).thenReturn(List.of());
 
     assertThrows(NotFoundException.class, () -> bankAccountService.getBalance(1L));
   }
@@ -201,55 +478,92 @@ class BankAccountServiceTest {
   void shouldExchangeCurrency() {
     BalanceEntity fromBalance = new BalanceEntity();
     fromBalance.setCurrency(Currency.USD);
-    fromBalance.setAmount(new BigDecimal("100"));
+    fromBalance.setAmount(Money.parse("100"));
 
     BalanceEntity toBalance = new BalanceEntity();
     toBalance.setCurrency(Currency.EUR);
-    toBalance.setAmount(new BigDecimal("50"));
+    toBalance.setAmount(Money.parse("50"));
 
     bankAccountEntity.getBalances().addAll(List.of(fromBalance, toBalance));
 
+    when(exchangeRateService.current()).thenReturn(rates);
     when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccountEntity));
 
-    bankAccountService.exchangeCurrency(1L, Currency.USD, Currency.EUR, new BigDecimal("10"));
+    bankAccountService.exchangeCurrency(1L, Currency.USD, Currency.EUR, Money.parse("10"));
 
     // USD rate to EUR is 0.85. 10 USD * 0.85 = 8.5 EUR
-    assertEquals(new BigDecimal("90.0000"), fromBalance.getAmount());
-    assertEquals(new BigDecimal("58.5000"), toBalance.getAmount());
+    assertEquals(Money.parse("90.0000"), fromBalance.getAmount());
+    assertEquals(Money.parse("58.5000"), toBalance.getAmount());
     verify(balanceRepository).saveAll(any());
+    verify(ledgerService)
+        .record(fromBalance, Money.parse("-10"), LedgerEntryType.EXCHANGE_OUT, 3L);
+    verify(ledgerService).record(toBalance, Money.parse("8.5"), LedgerEntryType.EXCHANGE_IN, 3L);
+  }
+
+  @Test
+  void exchangeCurrencyShouldLockBalancesInPessimisticMode() {
+    BalanceEntity fromBalance = new BalanceEntity();
+    fromBalance.setCurrency(Currency.USD);
+    fromBalance.setAmount(Money.parse("100"));
+
+    BalanceEntity toBalance = new BalanceEntity();
+    toBalance.setCurrency(Currency.EUR);
+
+    when(exchangeRateService.current()).thenReturn(rates);
+    when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccountEntity));
+    when(concurrencyControl.lockRows(List.of(1L))).thenReturn(true);
+    when(balanceRepository.findAllForUpdate(List.of(1L)))
+        .thenReturn(List.of(fromBalance, toBalance));
+
+    bankAccountService.exchangeCurrency(1L, Currency.USD, Currency.EUR, Money.parse("10"));
+
+    assertEquals(Money.parse("90.0000"), fromBalance.getAmount());
+    assertEquals(Money.parse("8.5000"), toBalance.getAmount());
   }
 
   @Test
-  void exchangeCurrencyShouldCreateTargetBalanceIfMissing() {
+  void exchangeCurrencyShouldCreateTargetBalanceBeforeLocking() {
     BalanceEntity fromBalance = new BalanceEntity();
     fromBalance.setCurrency(Currency.EUR);
-    fromBalance.setAmount(new BigDecimal("100"));
-    bankAccountEntity.getBalances().add(fromBalance);
+    fromBalance.setAmount(Money.parse("100"));
+
+    BalanceEntity createdBalance = new BalanceEntity();
+    createdBalance.setCurrency(Currency.USD);
 
+    when(exchangeRateService.current()).thenReturn(rates);
     when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccountEntity));
+    when(concurrencyControl.lockRows(List.of(1L))).thenReturn(true);
+    when(balanceRepository.findAllForUpdate(List.of(1L)))
+        .thenReturn(List.of(fromBalance, createdBalance));
 
-    bankAccountService.exchangeCurrency(1L, Currency.EUR, Currency.USD, new BigDecimal("8.5"));
+    bankAccountService.exchangeCurrency(1L, Currency.EUR, Currency.USD, Money.parse("8.5"));
 
+    InOrder inOrder = inOrder(balanceRepository);
+    inOrder.verify(balanceRepository).createIfMissing(1L, "USD");
+    inOrder.verify(balanceRepository).findAllForUpdate(List.of(1L));
     // EUR to USD rate: toEur is 1. fromEur for USD is amount / 0.85
     // 8.5 EUR -> 8.5 / 0.85 = 10 USD
-    assertEquals(new BigDecimal("91.5000"), fromBalance.getAmount());
+    assertEquals(Money.parse("91.5000"), fromBalance.getAmount());
+    assertEquals(Money.parse("10.0000"), createdBalance.getAmount());
+    verify(balanceRepository).saveAll(List.of(fromBalance, createdBalance));
+  }
 
-    ArgumentCaptor<List<BalanceEntity>> captor = ArgumentCaptor.forClass(List.class);
-    verify(balanceRepository).saveAll(captor.capture());
+  @Test
+  void exchangeCurrencyShouldThrowNotFoundWhenSourceCurrencyIsMissing() {
+    when(exchangeRateService.current()).thenReturn(rates);
+    when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccountEntity));
 
-    List<BalanceEntity> savedBalances = captor.getValue();
-    assertEquals(2, savedBalances.size());
-    BalanceEntity savedToBalance =
-        savedBalances.stream()
-            .filter(b -> b.getCurrency().equals(Currency.USD))
-            .findFirst()
-            .orElseThrow();
-    assertEquals(new BigDecimal("10.0000"), savedToBalance.getAmount());
+    assertThrows(
+        NotFoundException.class,
+        () ->
+            bankAccountService.exchangeCurrency(
+                1L, Currency.GBP, Currency.USD, Money.parse("10")));
+    verify(balanceRepository, never()).saveAll(any());
   }
 
   @Test
   void exchangeCurrencyShouldDoNothingWhenCurrenciesAreSame() {
-    bankAccountService.exchangeCurrency(1L, Currency.EUR, Currency.EUR, new BigDecimal("100"));
+    bankAccountService.exchangeCurrency(1L, Currency.EUR, Currency.EUR, Money.parse("100"));
     verify(bankAccountRepository, never()).findById(any());
   }
 
@@ -257,15 +571,20 @@ class BankAccountServiceTest {
   void exchangeCurrencyShouldThrowInsufficientFunds() {
     BalanceEntity fromBalance = new BalanceEntity();
     fromBalance.setCurrency(Currency.EUR);
-    fromBalance.setAmount(new BigDecimal("50"));
+    fromBalance.setAmount(Money.parse("50"));
     bankAccountEntity.getBalances().add(fromBalance);
 
+    when(exchangeRateService.current()).thenReturn(rates);
     when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccountEntity));
 
     assertThrows(
         InsufficientFundsException.class,
         () ->
             bankAccountService.exchangeCurrency(
-                1L, Currency.EUR, Currency.USD, new BigDecimal("100")));
+                1L, Currency.EUR, Currency.USD, Money.parse("100")));
+  }
+
+  private long timerCount(String name, String tag, String value) {
+    return meterRegistry.get(name).tags("operation", "debit", tag, value).timer().count();
   }
 }
@@ -0,0 +1,191 @@
+package com.homework.bankaccount.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.homework.bankaccount.config.ConcurrencyConfig;
+import com.homework.bankaccount.entities.BalanceEntity;
+import com.homework.bankaccount.entities.BankAccountEntity;
+import com.homework.bankaccount.enums.BatchItemStatus;
+import com.homework.bankaccount.enums.BatchMode;
+import com.homework.bankaccount.enums.ConcurrencyMode;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.LedgerEntryType;
+import com.homework.bankaccount.enums.TransactionType;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.repository.BalanceRepository;
+import com.homework.bankaccount.repository.BankAccountRepository;
+import com.homework.bankaccount.request.BatchTransactionItem;
+import com.homework.bankaccount.request.BatchTransactionRequest;
+import com.homework.bankaccount.response.BatchItemResult;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BatchTransactionServiceTest {
+  private final ConcurrencyConfig concurrencyConfig = new ConcurrencyConfig();
+  @Mock private BankAccountRepository bankAccountRepository;
+  @Mock private BalanceRepository balanceRepository;
+  @Mock private LedgerService ledgerService;
+  @Mock private BalanceCache balanceCache;
+
+  @Spy
+  private ConcurrencyControl concurrencyControl = new ConcurrencyControl(concurrencyConfig);
+
+  @InjectMocks private BatchTransactionService batchTransactionService;
+
+  private BankAccountEntity bankAccountEntity;
+  private BalanceEntity eurBalance;
+
+  @BeforeEach
+  void setUp() {
+    bankAccountEntity = new BankAccountEntity();
+    bankAccountEntity.setId(1L);
+
+    eurBalance = new BalanceEntity();
+    eurBalance.setBankAccount(bankAccountEntity);
+    eurBalance.setCurrency(Currency.EUR);
+    eurBalance.setAmount(Money.parse("100"));
+  }
+
+  @Test
+  void shouldApplyItemsInRequestOrder() {
+    when(bankAccountRepository.findExistingIds(any())).thenReturn(List.of(1L));
+    when(balanceRepository.findAllForUpdate(any())).thenReturn(List.of(eurBalance));
+
+    List<BatchItemResult> results =
+        batchTransactionService.apply(
+            request(
+                BatchMode.BEST_EFFORT,
+                item(1L, TransactionType.DEBIT, "150"),
+                item(1L, TransactionType.DEPOSIT, "100"),
+                item(1L, TransactionType.DEBIT, "150")),
+            null);
+
+    assertEquals(BatchItemStatus.REJECTED, results.get(0).status());
+    assertEquals(new BigDecimal("200.0000"), results.get(1).balance());
+    assertEquals(new BigDecimal("50.0000"), results.get(2).balance());
+    assertEquals(Money.parse("50"), eurBalance.getAmount());
+    verify(ledgerService).record(eurBalance, Money.parse("100"), LedgerEntryType.DEPOSIT);
+    verify(ledgerService).record(eurBalance, Money.parse("-150"), LedgerEntryType.DEBIT);
+    verify(balanceCache).evictAfterCommit(Set.of(1L));
+  }
+
+  @Test
+  void shouldReadBalancesWithoutLocksInOptimisticMode() {
+    concurrencyConfig.setMode(ConcurrencyMode.OPTIMISTIC);
+    when(bankAccountRepository.findExistingIds(any())).thenReturn(List.of(1L));
+    when(balanceRepository.findAllByAccounts(any())).thenReturn(List.of(eurBalance));
+
+    batchTransactionService.apply(
+        request(BatchMode.BEST_EFFORT, item(1L, TransactionType.DEBIT, "40")), null);
+
+    assertEquals(Money.parse("60"), eurBalance.getAmount());
+    verify(balanceRepository, never()).findAllForUpdate(any());
+  }
+
+  @Test
+  void shouldCreateBalanceForFirstDepositInCurrencyBeforeLocking() {
+    BalanceEntity usdBalance = new BalanceEntity();
+    usdBalance.setBankAccount(bankAccountEntity);
+    usdBalance.setCurrency(Currency.USD);
+    when(bankAccountRepository.findExistingIds(any())).thenReturn(List.of(1L));
+    when(balanceRepository.createIfMissing(1L, "USD")).thenReturn(1);
+    when(balanceRepository.findAllForUpdate(any())).thenReturn(List.of(usdBalance));
+
+    List<BatchItemResult> results =
+        batchTransactionService.apply(
+            request(
+                BatchMode.BEST_EFFORT,
+                item(1L, TransactionType.DEBIT, "5", Currency.USD),
+                item(1L, TransactionType.DEPOSIT, "10", Currency.USD)),
+            null);
+
+    InOrder inOrder = inOrder(balanceRepository);
+    inOrder.verify(balanceRepository).createIfMissing(1L, "USD");
+    inOrder.verify(balanceRepository).findAllForUpdate(any());
+    assertEquals("Currency not found: USD", results.get(0).error());
+    assertEquals(BatchItemStatus.APPLIED, results.get(1).status());
+    assertEquals(Money.parse("10"), usdBalance.getAmount());
+    verify(ledgerService).record(usdBalance, Money.parse("10"), LedgerEntryType.DEPOSIT);
+    verify(balanceRepository, never()).saveAll(any());
+  }
+
+  @Test
+  void shouldRejectItemsForUnknownAccounts() {
+    when(bankAccountRepository.findExistingIds(any())).thenReturn(List.of());
+
+    List<BatchItemResult> results =
+        batchTransactionService.apply(
+            request(BatchMode.BEST_EFFORT, item(2L, TransactionType.DEPOSIT, "10")), null);
+
+    assertEquals(BatchItemStatus.REJECTED, results.getFirst().status());
+    assertEquals("Bank account not found: 2", results.getFirst().error());
+  }
+
+  @Test
+  void shouldApplyNothingWhenAnyItemIsRejectedInAllOrNothingMode() {
+    when(bankAccountRepository.findExistingIds(any())).thenReturn(List.of(1L));
+    when(balanceRepository.findAllForUpdate(any())).thenReturn(List.of(eurBalance));
+
+    List<BatchItemResult> results =
+        batchTransactionService.apply(
+            request(
+                BatchMode.ALL_OR_NOTHING,
+                item(1L, TransactionType.DEPOSIT, "10"),
+                item(1L, TransactionType.DEBIT, "500")),
+            null);
+
+    assertEquals(BatchItemStatus.NOT_APPLIED, results.get(0).status());
+    assertNull(results.get(0).balance());
+    assertEquals(BatchItemStatus.REJECTED, results.get(1).status());
+    assertEquals(Money.parse("100"), eurBalance.getAmount());
+    verify(ledgerService, never()).record(any(), any(), any());
+  }
+
+  @Test
+  void shouldRejectDebitsWhenExternalSystemIsUnavailable() {
+    when(bankAccountRepository.findExistingIds(any())).thenReturn(List.of(1L));
+    when(balanceRepository.findAllForUpdate(any())).thenReturn(List.of(eurBalance));
+
+    List<BatchItemResult> results =
+        batchTransactionService.apply(
+            request(
+                BatchMode.BEST_EFFORT,
+                item(1L, TransactionType.DEBIT, "10"),
+                item(1L, TransactionType.DEPOSIT, "10")),
+            "Service unavailable");
+
+    assertEquals(BatchItemStatus.REJECTED, results.get(0).status());
+    assertEquals("Service unavailable", results.get(0).error());
+    assertEquals(BatchItemStatus.APPLIED, results.get(1).status());
+    assertEquals(Money.parse("110"), eurBalance.getAmount());
+  }
+
+  private static BatchTransactionRequest request(BatchMode mode, BatchTransactionItem... items) {
+    return new BatchTransactionRequest(mode, List.of(items));
+  }
+
+  private static BatchTransactionItem item(Long accountId, TransactionType type, String amount) {
+    return item(accountId, type, amount, Currency.EUR);
+  }
+
+  private static BatchTransactionItem item(
+      Long accountId, TransactionType type, String amount, Currency currency) {
+    return new BatchTransactionItem(accountId, type, new BigDecimal(amount), currency);
+  }
+}
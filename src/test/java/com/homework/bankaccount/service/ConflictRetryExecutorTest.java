@@ -0,0 +1,113 @@
+package com.homework.bankaccount.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.homework.bankaccount.config.ConcurrencyConfig;
+import com.homework.bankaccount.enums.ConcurrencyMode;
+import com.homework.bankaccount.exception.ConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+class ConflictRetryExecutorTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ConcurrencyConfig concurrencyConfig = new ConcurrencyConfig();
+  private ConflictRetryExecutor conflictRetryExecutor;
+
+  @BeforeEach
+  void setUp() {
+    concurrencyConfig.setMaxAttempts(3);
+    concurrencyConfig.setInitialBackoff(Duration.ofMillis(1));
+    concurrencyConfig.setMaxBackoff(Duration.ofMillis(2));
+    conflictRetryExecutor =
+        new ConflictRetryExecutor(
+            TransactionOperations.withoutTransaction(), concurrencyConfig, meterRegistry);
+  }
+
+  @Test
+  void shouldRetryUntilTheConflictIsGone() {
+    AtomicInteger calls = new AtomicInteger();
+
+    String result =
+        conflictRetryExecutor.execute(
+            "exchange",
+            () -> {
+              if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("BalanceEntity", 1L);
+              }
+              return "done";
+            });
+
+    assertEquals("done", result);
+    assertEquals(3, calls.get());
+    assertEquals(2.0, conflicts("exchange", "retried"));
+    assertEquals(3.0, meterRegistry.get("bankaccount.concurrency.attempts").summary().max());
+  }
+
+  @Test
+  void shouldGiveUpWithConflictAfterMaxAttempts() {
+    AtomicInteger calls = new AtomicInteger();
+
+    assertThrows(
+        ConflictException.class,
+        () ->
+            conflictRetryExecutor.execute(
+                "transfer",
+                () -> {
+                  calls.incrementAndGet();
+                  throw new CannotAcquireLockException("deadlock detected");
+                }));
+
+    assertEquals(3, calls.get());
+    assertEquals(2.0, conflicts("transfer", "retried"));
+    assertEquals(1.0, conflicts("transfer", "exhausted"));
+  }
+
+  @Test
+  void shouldNotRetryOtherFailures() {
+    AtomicInteger calls = new AtomicInteger();
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            conflictRetryExecutor.execute(
+                "batch",
+                () -> {
+                  calls.incrementAndGet();
+                  throw new IllegalStateException();
+                }));
+
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void shouldLockRowsOnlyForHotAccountsInOptimisticMode() {
+    ConcurrencyControl concurrencyControl = new ConcurrencyControl(concurrencyConfig);
+    assertTrue(concurrencyControl.lockRows(List.of(1L)));
+
+    concurrencyConfig.setMode(ConcurrencyMode.OPTIMISTIC);
+    concurrencyConfig.setHotAccountIds(Set.of(2L));
+
+    assertFalse(concurrencyControl.lockRows(List.of(1L)));
+    assertTrue(concurrencyControl.lockRows(List.of(1L, 2L)));
+  }
+
+  private double conflicts(String operation, String resolution) {
+    return meterRegistry
+        .get("bankaccount.concurrency.conflicts")
+        .tags("operation", operation, "resolution", resolution)
+        .counter()
+        .count();
+  }
+}
@@ -0,0 +1,181 @@
+package com.homework.bankaccount.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.homework.bankaccount.config.FundHoldConfig;
+import com.homework.bankaccount.entities.BalanceHoldEntity;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.HoldStatus;
+import com.homework.bankaccount.exception.InsufficientFundsException;
+import com.homework.bankaccount.exception.NotFoundException;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.repository.BalanceHoldRepository;
+import com.homework.bankaccount.repository.BalanceRepository;
+import com.homework.bankaccount.repository.BankAccountRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class FundHoldServiceTest {
+  @Mock private BankAccountRepository bankAccountRepository;
+  @Mock private BalanceRepository balanceRepository;
+  @Mock private BalanceHoldRepository balanceHoldRepository;
+  @Spy private FundHoldConfig fundHoldConfig = new FundHoldConfig();
+  @Mock private BalanceCache balanceCache;
+  @Mock private IdempotencyService idempotencyService;
+  @InjectMocks private FundHoldService fundHoldService;
+
+  @Test
+  void shouldReserveFunds() {
+    Money amount = Money.parse("50");
+    when(balanceRepository.debit(1L, "EUR", 500_000L)).thenReturn(Optional.of(250_000L));
+    when(balanceHoldRepository.save(any(BalanceHoldEntity.class)))
+        .thenAnswer(
+            invocation -> {
+              BalanceHoldEntity hold = invocation.getArgument(0);
+              hold.setId(7L);
+              return hold;
+            });
+
+    FundHold hold = fundHoldService.reserve(1L, Currency.EUR, amount);
+
+    assertEquals(new FundHold(7L, Money.parse("25")), hold);
+    ArgumentCaptor<BalanceHoldEntity> captor = ArgumentCaptor.forClass(BalanceHoldEntity.class);
+    verify(balanceHoldRepository).save(captor.capture());
+    assertEquals(HoldStatus.PENDING, captor.getValue().getStatus());
+    assertEquals(amount, captor.getValue().getAmount());
+  }
+
+  @Test
+  void reserveShouldThrowNotFoundWhenAccountDoesNotExist() {
+    when(balanceRepository.debit(1L, "EUR", 100_000L)).thenReturn(Optional.empty());
+    when(bankAccountRepository.existsById(1L)).thenReturn(false);
+
+    assertThrows(
+        NotFoundException.class,
+        () -> fundHoldService.reserve(1L, Currency.EUR, Money.parse("10")));
+    verify(balanceHoldRepository, never()).save(any());
+  }
+
+  @Test
+  void reserveShouldThrowNotFoundWhenCurrencyDoesNotExist() {
+    when(balanceRepository.debit(1L, "USD", 100_000L)).thenReturn(Optional.empty());
+    when(bankAccountRepository.existsById(1L)).thenReturn(true);
+    when(balanceRepository.existsByBankAccountIdAndCurrency(1L, Currency.USD)).thenReturn(false);
+
+    assertThrows(
+        NotFoundException.class,
+        () -> fundHoldService.reserve(1L, Currency.USD, Money.parse("10")));
+  }
+
+  @Test
+  void reserveShouldThrowInsufficientFunds() {
+    when(balanceRepository.debit(1L, "EUR", 100_000L)).thenReturn(Optional.empty());
+    when(bankAccountRepository.existsById(1L)).thenReturn(true);
+    when(balanceRepository.existsByBankAccountIdAndCurrency(1L, Currency.EUR)).thenReturn(true);
+
+    assertThrows(
+        InsufficientFundsException.class,
+        () -> fundHoldService.reserve(1L, Currency.EUR, Money.parse("10")));
+    verify(balanceHoldRepository, never()).save(any());
+  }
+
+  @Test
+  void releaseShouldReturnFundsToBalance() {
+    BalanceHoldEntity hold = hold(7L);
+    when(balanceHoldRepository.findById(7L)).thenReturn(Optional.of(hold));
+    when(balanceHoldRepository.transition(7L, HoldStatus.PENDING, HoldStatus.RELEASED))
+        .thenReturn(1);
+
+    fundHoldService.release(7L);
+
+    verify(balanceRepository).deposit(1L, "EUR", 500_000L, "DEBIT_RELEASE");
+    verify(balanceCache).evictAfterCommit(1L);
+  }
+
+  @Test
+  void releaseShouldNotReturnFundsTwice() {
+    when(balanceHoldRepository.findById(7L)).thenReturn(Optional.of(hold(7L)));
+    when(balanceHoldRepository.transition(7L, HoldStatus.PENDING, HoldStatus.RELEASED))
+        .thenReturn(0);
+
+    fundHoldService.release(7L);
+
+    verify(balanceRepository, never()).deposit(any(), any(), anyLong(), any());
+  }
+
+  @Test
+  void settleShouldFailWhenHoldIsNoLongerPending() {
+    when(balanceHoldRepository.transitionUnexpired(
+            eq(7L), eq(HoldStatus.PENDING), eq(HoldStatus.SETTLED), any()))
+        .thenReturn(0);
+
+    assertFalse(fundHoldService.settle(7L));
+  }
+
+  @Test
+  void settleShouldCompleteIdempotencyKeyWithTheHold() {
+    when(balanceHoldRepository.transitionUnexpired(
+            eq(7L), eq(HoldStatus.PENDING), eq(HoldStatus.SETTLED), any()))
+        .thenReturn(1);
+
+    assertTrue(fundHoldService.settle(7L, "key", "debit:1:EUR:10.0000", Money.parse("90")));
+    verify(idempotencyService).complete("key", "debit:1:EUR:10.0000", Money.parse("90"));
+  }
+
+  @Test
+  void settleShouldNotCompleteIdempotencyKeyWhenHoldExpired() {
+    when(balanceHoldRepository.transitionUnexpired(
+            eq(7L), eq(HoldStatus.PENDING), eq(HoldStatus.SETTLED), any()))
+        .thenReturn(0);
+
+    assertFalse(fundHoldService.settle(7L, "key", "debit:1:EUR:10.0000", Money.parse("90")));
+    verify(idempotencyService, never()).complete(any(), any(), any());
+  }
+
+  @Test
+  void shouldExpireHoldsPastTheirDeadline() {
+    Instant now = Instant.now();
+    BalanceHoldEntity first = hold(7L);
+    BalanceHoldEntity second = hold(8L);
+    when(balanceHoldRepository.findByStatusAndExpiresAtBeforeOrderByExpiresAt(
+            any(), any(), any()))
+        .thenReturn(List.of(first, second));
+    when(balanceHoldRepository.transition(7L, HoldStatus.PENDING, HoldStatus.EXPIRED))
+        .thenReturn(1);
+    when(balanceHoldRepository.transition(8L, HoldStatus.PENDING, HoldStatus.EXPIRED))
+        .thenReturn(0);
+
+    int released = fundHoldService.expireHolds(now);
+
+    assertEquals(1, released);
+    verify(balanceRepository).deposit(1L, "EUR", 500_000L, "DEBIT_RELEASE");
+  }
+
+  private static BalanceHoldEntity hold(Long id) {
+    BalanceHoldEntity hold = new BalanceHoldEntity();
+    hold.setId(id);
+    hold.setBankAccountId(1L);
+    hold.setCurrency(Currency.EUR);
+    hold.setAmount(Money.parse("50"));
+    hold.setStatus(HoldStatus.PENDING);
+    return hold;
+  }
+}
@@ -0,0 +1,112 @@
+package com.homework.bankaccount.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.homework.bankaccount.config.IdempotencyConfig;
+import com.homework.bankaccount.entities.IdempotencyKeyEntity;
+import com.homework.bankaccount.exception.BadRequestException;
+import com.homework.bankaccount.exception.ConflictException;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.repository.IdempotencyKeyRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+  private static final String REQUEST = "deposit:1:EUR:10.0000";
+
+  @Mock private IdempotencyKeyRepository idempotencyKeyRepository;
+
+  private IdempotencyService idempotencyService;
+
+  @BeforeEach
+  void setUp() {
+    idempotencyService = new IdempotencyService(idempotencyKeyRepository, new IdempotencyConfig());
+  }
+
+  @Test
+  void shouldClaimNewKey() {
+    when(idempotencyKeyRepository.claim(eq("key"), eq(REQUEST), any())).thenReturn(1);
+
+    assertTrue(idempotencyService.claim("key", REQUEST).isEmpty());
+  }
+
+  @Test
+  void shouldClaimForClaimTtlAndExtendOnCompletion() {
+    when(idempotencyKeyRepository.claim(eq("key"), eq(REQUEST), any())).thenReturn(1);
+    Instant start = Instant.now();
+
+    idempotencyService.claim("key", REQUEST);
+    idempotencyService.complete("key", REQUEST, Money.parse("10"));
+
+    ArgumentCaptor<Instant> claimedUntil = ArgumentCaptor.forClass(Instant.class);
+    verify(idempotencyKeyRepository).claim(eq("key"), eq(REQUEST), claimedUntil.capture());
+    assertTrue(claimedUntil.getValue().isBefore(start.plus(Duration.ofMinutes(2))));
+    ArgumentCaptor<Instant> completedUntil = ArgumentCaptor.forClass(Instant.class);
+    verify(idempotencyKeyRepository)
+        .complete(eq("key"), eq(100_000L), completedUntil.capture());
+    assertTrue(completedUntil.getValue().isAfter(start.plus(Duration.ofHours(23))));
+  }
+
+  @Test
+  void shouldServeCompletedKeyFromMemory() {
+    idempotencyService.complete("key", REQUEST, Money.parse("10"));
+
+    Optional<IdempotentResult> result = idempotencyService.claim("key", REQUEST);
+
+    assertEquals(Money.parse("10"), result.orElseThrow().balance());
+    verify(idempotencyKeyRepository, never()).claim(any(), any(), any());
+  }
+
+  @Test
+  void shouldLoadCompletedKeyFromDatabase() {
+    when(idempotencyKeyRepository.claim(eq("key"), eq(REQUEST), any())).thenReturn(0);
+    when(idempotencyKeyRepository.findById("key")).thenReturn(Optional.of(entity(true)));
+
+    assertEquals(
+        Money.parse("10"), idempotencyService.claim("key", REQUEST).orElseThrow().balance());
+    idempotencyService.claim("key", REQUEST);
+
+    verify(idempotencyKeyRepository).findById("key");
+  }
+
+  @Test
+  void shouldRejectKeyReusedForDifferentRequest() {
+    idempotencyService.complete("key", REQUEST, Money.parse("10"));
+
+    assertThrows(
+        BadRequestException.class, () -> idempotencyService.claim("key", "debit:1:EUR:10.0000"));
+  }
+
+  @Test
+  void shouldRejectKeyWhileRequestIsInProgress() {
+    when(idempotencyKeyRepository.claim(eq("key"), eq(REQUEST), any())).thenReturn(0);
+    when(idempotencyKeyRepository.findById("key")).thenReturn(Optional.of(entity(false)));
+
+    assertThrows(ConflictException.class, () -> idempotencyService.claim("key", REQUEST));
+  }
+
+  private static IdempotencyKeyEntity entity(boolean completed) {
+    IdempotencyKeyEntity entity = new IdempotencyKeyEntity();
+    entity.setIdempotencyKey("key");
+    entity.setRequest(REQUEST);
+    entity.setCompleted(completed);
+    entity.setResultBalance(completed ? Money.parse("10") : null);
+    return entity;
+  }
+}
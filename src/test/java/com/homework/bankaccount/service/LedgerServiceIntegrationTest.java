@@ -0,0 +1,121 @@
+package com.homework.bankaccount.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.homework.bankaccount.PostgresIntegrationTest;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
+import com.homework.bankaccount.httpclient.response.ExternalSystemResponse;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.rates.ExchangeRateService;
+import com.homework.bankaccount.request.MoneyRequest;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest
+class LedgerServiceIntegrationTest extends PostgresIntegrationTest {
+
+  @Autowired private BankAccountService bankAccountService;
+
+  @Autowired private LedgerService ledgerService;
+
+  @Autowired private ExchangeRateService exchangeRateService;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @MockitoBean private ExternalSystemRestClient externalSystemRestClient;
+
+  @Test
+  void shouldRecordEveryBalanceChangeInTheLedger() {
+    when(externalSystemRestClient.getExternalSystemResponse())
+        .thenReturn(new ExternalSystemResponse(200, "OK"));
+    Long accountId = bankAccountService.createAccount("ledger").getId();
+
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("100"), Currency.EUR));
+    bankAccountService.debitMoney(accountId, new MoneyRequest(new BigDecimal("30"), Currency.EUR));
+    bankAccountService.exchangeCurrency(
+        accountId, Currency.EUR, Currency.USD, Money.parse("8.5"));
+
+    assertEquals(
+        List.of("DEPOSIT:100.0000", "DEBIT:-30.0000", "EXCHANGE_OUT:-8.5000"),
+        jdbcTemplate.queryForList(
+            "SELECT entry_type || ':' || amount FROM ledger_entry"
+                + " WHERE bank_account_id = ? AND currency = 'EUR' ORDER BY seq",
+            String.class,
+            accountId));
+    assertEquals(Money.parse("61.5"), ledgerService.computeBalance(accountId, Currency.EUR));
+    assertEquals(Money.parse("10"), ledgerService.computeBalance(accountId, Currency.USD));
+    assertEquals(
+        List.of(exchangeRateService.current().version()),
+        jdbcTemplate.queryForList(
+            "SELECT DISTINCT rate_version FROM ledger_entry"
+                + " WHERE bank_account_id = ? AND entry_type LIKE 'EXCHANGE%'",
+            Long.class,
+            accountId));
+  }
+
+  @Test
+  void depositOverflowingTheBalanceShouldNotReportMissingAccount() {
+    Long accountId = bankAccountService.createAccount("overflow").getId();
+    MoneyRequest deposit = new MoneyRequest(new BigDecimal("900000000000000"), Currency.EUR);
+    bankAccountService.addMoney(accountId, deposit);
+
+    assertThrows(
+        DataIntegrityViolationException.class,
+        () -> bankAccountService.addMoney(accountId, deposit));
+    assertEquals(
+        Money.parse("900000000000000"), ledgerService.computeBalance(accountId, Currency.EUR));
+  }
+
+  @Test
+  void shouldComputeBalanceFromSnapshotAndTail() {
+    Long accountId = bankAccountService.createAccount("snapshot").getId();
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("40"), Currency.GBP));
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("2"), Currency.GBP));
+
+    assertTrue(ledgerService.takeSnapshots() > 0);
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("5"), Currency.GBP));
+
+    assertEquals(
+        2L,
+        jdbcTemplate.queryForObject(
+            "SELECT max(seq) FROM balance_snapshot WHERE bank_account_id = ?",
+            Long.class,
+            accountId));
+    assertEquals(Money.parse("47"), ledgerService.computeBalance(accountId, Currency.GBP));
+  }
+
+  @Test
+  void shouldMoveDefaultPartitionEntriesIntoNewMonthlyPartition() {
+    jdbcTemplate.update(
+        "INSERT INTO ledger_entry (bank_account_id, currency, seq, amount, balance_after,"
+            + " entry_type, created_at) VALUES (?, 'EUR', 1, 5, 5, 'DEPOSIT', ?)",
+        Long.MAX_VALUE,
+        OffsetDateTime.parse("2099-01-15T00:00:00Z"));
+
+    ledgerService.createPartition(YearMonth.of(2099, 1));
+    ledgerService.createPartition(YearMonth.of(2099, 1));
+
+    assertEquals(
+        1L,
+        jdbcTemplate.queryForObject("SELECT count(*) FROM ledger_entry_2099_01", Long.class));
+    assertEquals(
+        0L,
+        jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM ledger_entry_default WHERE bank_account_id = ?",
+            Long.class,
+            Long.MAX_VALUE));
+    assertEquals(Money.parse("5"), ledgerService.computeBalance(Long.MAX_VALUE, Currency.EUR));
+  }
+}
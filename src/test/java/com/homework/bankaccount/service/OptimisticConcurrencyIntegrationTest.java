@@ -0,0 +1,107 @@
+package com.homework.bankaccount.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.homework.bankaccount.PostgresIntegrationTest;
+import com.homework.bankaccount.entities.BalanceEntity;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.exception.ConflictException;
+import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.repository.BalanceRepository;
+import com.homework.bankaccount.request.MoneyRequest;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest(
+    properties = {
+      "bankaccount.concurrency.mode=OPTIMISTIC",
+      "bankaccount.concurrency.max-attempts=20"
+    })
+class OptimisticConcurrencyIntegrationTest extends PostgresIntegrationTest {
+
+  private static final int EXCHANGES = 200;
+  private static final int THREADS = 16;
+
+  @Autowired private BankAccountService bankAccountService;
+
+  @Autowired private BalanceRepository balanceRepository;
+
+  @Autowired private LedgerService ledgerService;
+
+  @MockitoBean private ExternalSystemRestClient externalSystemRestClient;
+
+  @Test
+  void singleStatementUpdatesShouldInvalidateLoadedVersions() {
+    Long accountId = bankAccountService.createAccount("versioned").getId();
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("10"), Currency.EUR));
+    BalanceEntity stale = balanceRepository.findAllByAccounts(List.of(accountId)).getFirst();
+
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("5"), Currency.EUR));
+    stale.setAmount(Money.ZERO);
+
+    assertThrows(
+        ObjectOptimisticLockingFailureException.class, () -> balanceRepository.save(stale));
+  }
+
+  @Test
+  void concurrentExchangesShouldRetryWithoutLosingUpdates() throws Exception {
+    Long accountId = bankAccountService.createAccount("optimistic").getId();
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("1000"), Currency.EUR));
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("1"), Currency.USD));
+
+    AtomicInteger succeeded = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < EXCHANGES; i++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                try {
+                  bankAccountService.exchangeCurrency(
+                      accountId, Currency.EUR, Currency.USD, Money.parse("1"));
+                  succeeded.incrementAndGet();
+                } catch (ConflictException e) {
+                  // Retries used up; the exchange left no trace.
+                }
+                return null;
+              }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(1, TimeUnit.MINUTES);
+    }
+    executor.shutdown();
+
+    assertTrue(succeeded.get() > 0);
+    Money eur = balanceOf(accountId, Currency.EUR);
+    assertEquals(Money.parse("1000").minus(Money.parse(String.valueOf(succeeded.get()))), eur);
+    assertEquals(eur, ledgerService.computeBalance(accountId, Currency.EUR));
+    assertEquals(
+        balanceOf(accountId, Currency.USD), ledgerService.computeBalance(accountId, Currency.USD));
+  }
+
+  private Money balanceOf(Long accountId, Currency currency) {
+    return balanceRepository.findAllByAccounts(List.of(accountId)).stream()
+        .filter(balance -> balance.getCurrency() == currency)
+        .findFirst()
+        .orElseThrow()
+        .getAmount();
+  }
+}
@@ -0,0 +1,68 @@
+package com.homework.bankaccount.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.homework.bankaccount.PostgresIntegrationTest;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.enums.StatementFormat;
+import com.homework.bankaccount.exception.NotFoundException;
+import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
+import com.homework.bankaccount.request.MoneyRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest
+class StatementServiceIntegrationTest extends PostgresIntegrationTest {
+
+  @Autowired private BankAccountService bankAccountService;
+
+  @Autowired private StatementService statementService;
+
+  @MockitoBean private ExternalSystemRestClient externalSystemRestClient;
+
+  @Test
+  void shouldStreamLedgerEntriesAsCsvAndNdjson() throws IOException {
+    Long accountId = bankAccountService.createAccount("statement").getId();
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("10"), Currency.EUR));
+    bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal("5"), Currency.EUR));
+    Instant from = Instant.now().minus(Duration.ofHours(1));
+    Instant to = Instant.now().plus(Duration.ofHours(1));
+
+    String[] csv = write(accountId, from, to, StatementFormat.CSV).split("\n");
+    String[] ndjson = write(accountId, from, to, StatementFormat.NDJSON).split("\n");
+
+    assertEquals(3, csv.length);
+    assertEquals("currency,seq,amount,balance_after,entry_type,rate_version,created_at", csv[0]);
+    assertTrue(csv[2].startsWith("EUR,2,5.0000,15.0000,DEPOSIT,,"));
+    assertEquals(2, ndjson.length);
+    assertTrue(
+        ndjson[0].startsWith(
+            "{\"currency\":\"EUR\",\"seq\":1,\"amount\":10.0000,\"balanceAfter\":10.0000,"
+                + "\"entryType\":\"DEPOSIT\",\"rateVersion\":null,\"createdAt\":\""));
+    assertEquals("", write(accountId, to, to.plusSeconds(60), StatementFormat.NDJSON));
+  }
+
+  @Test
+  void shouldRejectUnknownAccount() {
+    assertThrows(
+        NotFoundException.class,
+        () -> statementService.checkStatement(-1L, Instant.EPOCH, Instant.now()));
+  }
+
+  private String write(Long accountId, Instant from, Instant to, StatementFormat format)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    statementService.writeStatement(accountId, from, to, format, out);
+    return out.toString(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,146 @@
+package com.homework.bankaccount.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import com.homework.bankaccount.PostgresIntegrationTest;
+import com.homework.bankaccount.enums.Currency;
+import com.homework.bankaccount.exception.InsufficientFundsException;
+import com.homework.bankaccount.httpclient.ExternalSystemRestClient;
+import com.homework.bankaccount.httpclient.response.ExternalSystemResponse;
+import com.homework.bankaccount.money.Money;
+import com.homework.bankaccount.rates.ExchangeRateService;
+import com.homework.bankaccount.request.MoneyRequest;
+import com.homework.bankaccount.request.TransferRequest;
+import com.homework.bankaccount.response.TransferResponse;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest
+class TransferServiceIntegrationTest extends PostgresIntegrationTest {
+
+  private static final int TRANSFERS = 1000;
+  private static final int THREADS = 32;
+
+  @Autowired private BankAccountService bankAccountService;
+
+  @Autowired private ExchangeRateService exchangeRateService;
+
+  @Autowired private LedgerService ledgerService;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @MockitoBean private ExternalSystemRestClient externalSystemRestClient;
+
+  @BeforeEach
+  void setUp() {
+    when(externalSystemRestClient.getExternalSystemResponse())
+        .thenReturn(new ExternalSystemResponse(200, "OK"));
+  }
+
+  @Test
+  void shouldTransferAndConvertBetweenCurrencies() {
+    Long from = account("from", "100");
+    Long to = account("to", "0");
+
+    TransferResponse sameCurrency =
+        bankAccountService.transfer(
+            new TransferRequest(from, to, new BigDecimal("30"), Currency.EUR, null));
+    TransferResponse converted =
+        bankAccountService.transfer(
+            new TransferRequest(from, to, new BigDecimal("10"), Currency.EUR, Currency.USD));
+
+    Money expected =
+        exchangeRateService.current().convert(Money.parse("10"), Currency.EUR, Currency.USD);
+    assertEquals(new BigDecimal("30.0000"), sameCurrency.toBalance());
+    assertEquals(new BigDecimal("60.0000"), converted.fromBalance());
+    assertEquals(expected.toBigDecimal(), converted.creditedAmount());
+    assertEquals(expected.toBigDecimal(), balanceOf(to, Currency.USD));
+    assertEquals(Money.parse("60"), ledgerService.computeBalance(from, Currency.EUR));
+  }
+
+  @Test
+  void shouldLeaveNothingBehindWhenFundsAreInsufficient() {
+    Long from = account("poor", "5");
+    Long to = account("rich", "0");
+
+    assertThrows(
+        InsufficientFundsException.class,
+        () ->
+            bankAccountService.transfer(
+                new TransferRequest(from, to, new BigDecimal("10"), Currency.EUR, Currency.SEK)));
+
+    assertEquals(new BigDecimal("5.0000"), balanceOf(from, Currency.EUR));
+    assertEquals(
+        0,
+        jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM balance WHERE bank_account_id = ? AND currency = 'SEK'",
+            Integer.class,
+            to));
+  }
+
+  @Test
+  void opposingTransfersShouldNotDeadlockOrLoseMoney() throws Exception {
+    Long first = account("first", "1000");
+    Long second = account("second", "1000");
+    CountDownLatch start = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < TRANSFERS; i++) {
+      boolean forward = i % 2 == 0;
+      TransferRequest request =
+          new TransferRequest(
+              forward ? first : second,
+              forward ? second : first,
+              new BigDecimal("1"),
+              Currency.EUR,
+              null);
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                return bankAccountService.transfer(request);
+              }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(1, TimeUnit.MINUTES);
+    }
+    executor.shutdown();
+
+    assertEquals(new BigDecimal("1000.0000"), balanceOf(first, Currency.EUR));
+    assertEquals(new BigDecimal("1000.0000"), balanceOf(second, Currency.EUR));
+    assertEquals(Money.parse("1000"), ledgerService.computeBalance(first, Currency.EUR));
+    assertEquals(Money.parse("1000"), ledgerService.computeBalance(second, Currency.EUR));
+  }
+
+  private Long account(String name, String eur) {
+    Long accountId = bankAccountService.createAccount(name).getId();
+    if (new BigDecimal(eur).signum() > 0) {
+      bankAccountService.addMoney(accountId, new MoneyRequest(new BigDecimal(eur), Currency.EUR));
+    }
+    return accountId;
+  }
+
+  private BigDecimal balanceOf(Long accountId, Currency currency) {
+    return jdbcTemplate.queryForObject(
+        "SELECT amount FROM balance WHERE bank_account_id = ? AND currency = ?",
+        BigDecimal.class,
+        accountId,
+        currency.name());
+  }
+}